@@ -0,0 +1,44 @@
+package com.example.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * A [TodoStore] that appends one JSON object per todo version to a file, forcing each batch to disk before returning.
+ */
+public class NdjsonTodoStore implements TodoStore {
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final FileChannel channel;
+
+    public NdjsonTodoStore(Path file) throws IOException {
+        this.channel = FileChannel.open(file, CREATE, WRITE, APPEND);
+    }
+
+    @Override
+    public void append(List<Map<String, Object>> records) throws IOException {
+        final StringBuilder batch = new StringBuilder();
+        for (Map<String, Object> record : records) {
+            batch.append(mapper.writeValueAsString(record)).append('\n');
+        }
+        final ByteBuffer bytes = ByteBuffer.wrap(batch.toString().getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.client;
+
+import com.example.query.TodoStatePager;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.Properties;
+
+/**
+ * The replication client's progress through its two walks of the vault (see [com.example.query.TodoStatePager]):
+ * the key of the last state copied in recorded-time order, and of the last consumption copied in consumed-time
+ * order. Each key is a time, transaction and output index.
+ *
+ * The checkpoint is written atomically, by writing a temporary file and moving it over the old one, so a crash never
+ * leaves a torn checkpoint behind.
+ */
+public class ReplicationCheckpoint {
+    public static final ReplicationCheckpoint START =
+        new ReplicationCheckpoint(TodoStatePager.Key.START, TodoStatePager.Key.START);
+
+    private final TodoStatePager.Key key;
+    private final TodoStatePager.Key consumedKey;
+
+    public ReplicationCheckpoint(TodoStatePager.Key key, TodoStatePager.Key consumedKey) {
+        this.key = key;
+        this.consumedKey = consumedKey;
+    }
+
+    public TodoStatePager.Key getKey() { return key; }
+    public TodoStatePager.Key getConsumedKey() { return consumedKey; }
+
+    public ReplicationCheckpoint withKey(TodoStatePager.Key key) {
+        return new ReplicationCheckpoint(key, consumedKey);
+    }
+
+    public ReplicationCheckpoint withConsumedKey(TodoStatePager.Key consumedKey) {
+        return new ReplicationCheckpoint(key, consumedKey);
+    }
+
+    /**
+     * Reads the checkpoint at [file], or returns [START] if there is none yet.
+     *
+     * A checkpoint written before output indexes were recorded resumes from the start of its last transaction, so
+     * that transaction's outputs are replicated again rather than any being missed. One written before consumptions
+     * were replicated starts their walk from the beginning.
+     */
+    public static ReplicationCheckpoint load(Path file) throws IOException {
+        if (!Files.exists(file)) return START;
+        final Properties props = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            props.load(reader);
+        }
+        return new ReplicationCheckpoint(
+            key(props, "lastRecordedTime", "lastTxId", "lastOutputIndex"),
+            key(props, "lastConsumedTime", "lastConsumedTxId", "lastConsumedOutputIndex"));
+    }
+
+    public void store(Path file) throws IOException {
+        final Properties props = new Properties();
+        setKey(props, key, "lastRecordedTime", "lastTxId", "lastOutputIndex");
+        setKey(props, consumedKey, "lastConsumedTime", "lastConsumedTxId", "lastConsumedOutputIndex");
+
+        final Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            props.store(writer, "Todo replication checkpoint");
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static TodoStatePager.Key key(Properties props, String time, String txId, String index) {
+        if (props.getProperty(time) == null || props.getProperty(txId) == null) return TodoStatePager.Key.START;
+        return new TodoStatePager.Key(Instant.parse(props.getProperty(time)), props.getProperty(txId),
+            Integer.parseInt(props.getProperty(index, "-1")));
+    }
+
+    private static void setKey(Properties props, TodoStatePager.Key key, String time, String txId, String index) {
+        if (key.isStart()) return;
+        props.setProperty(time, key.getTime().toString());
+        props.setProperty(txId, key.getTxId());
+        props.setProperty(index, Integer.toString(key.getIndex()));
+    }
+
+    @Override
+    public String toString() {
+        return "states " + describe(key) + ", consumptions " + describe(consumedKey);
+    }
+
+    private static String describe(TodoStatePager.Key key) {
+        return key.isStart() ? "from the start" : "to tx " + key.getTxId() + "(" + key.getIndex() + ") at " + key.getTime();
+    }
+}
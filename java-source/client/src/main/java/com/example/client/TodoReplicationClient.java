@@ -0,0 +1,225 @@
+package com.example.client;
+
+import com.example.query.TodoRecords;
+import com.example.query.TodoStatePager;
+import com.example.state.TodoState;
+import com.google.common.net.HostAndPort;
+import net.corda.client.rpc.CordaRPCClient;
+import net.corda.client.rpc.CordaRPCClientConfiguration;
+import net.corda.client.rpc.CordaRPCConnection;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.StateRef;
+import net.corda.core.messaging.CordaRPCOps;
+import net.corda.core.node.services.Vault;
+import net.corda.core.node.services.vault.PageSpecification;
+import net.corda.core.node.services.vault.QueryCriteria;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import rx.Subscription;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static net.corda.core.node.services.vault.QueryCriteriaUtilsKt.DEFAULT_PAGE_NUM;
+
+/**
+ * Replicates every [TodoState] version from a node into a local [TodoStore].
+ *
+ * Progress is recorded in a [ReplicationCheckpoint] after each batch, so on restart the client resumes where it left
+ * off rather than replaying the node's whole history. States are read in batches in recorded-time order, each as it
+ * stood when read. Vault updates serve as a wake-up signal to read the next batch, so new states and catch-up after
+ * downtime use the same path. Replication lag (how long ago the last replicated state was recorded by the node) is
+ * logged after every batch.
+ *
+ * A state read while unconsumed would otherwise stay unconsumed in the store for good, so consumptions are copied as
+ * [TodoRecords.consumption] records too. Those a vault update reports are copied as soon as it arrives. Those missed
+ * while the client was down are found by a second walk, over consumed states in consumed-time order, with its own
+ * place in the checkpoint; it skips those already copied from an update.
+ *
+ * Each walk re-reads the last [OVERLAP] before its checkpoint, so that a state recorded or consumed with an earlier time
+ * than one already copied, as when the node's clock steps back, is still copied if it is no further behind than that.
+ * Within a run the states already copied are skipped; after a restart the overlap is copied again, which the store
+ * ignores as duplicates.
+ */
+public class TodoReplicationClient {
+    static private final Logger logger = LoggerFactory.getLogger(TodoReplicationClient.class);
+
+    /** How long to wait for a vault update before checking for new states anyway. */
+    static private final long IDLE_POLL_SECONDS = 30;
+    static private final long RECONNECT_DELAY_SECONDS = 5;
+    /** How far behind its checkpoint each walk looks for states recorded or consumed late. */
+    static final Duration OVERLAP = Duration.ofSeconds(30);
+
+    private final CordaRPCOps proxy;
+    private final TodoStore store;
+    private final Path checkpointFile;
+    private final int batchSize;
+    private final TodoStatePager pager;
+    private final QueryCriteria criteria = new QueryCriteria.VaultQueryCriteria(Vault.StateStatus.ALL);
+    private final QueryCriteria consumedCriteria = new QueryCriteria.VaultQueryCriteria(Vault.StateStatus.CONSUMED);
+    private final Semaphore wakeUp = new Semaphore(0);
+    /** Consumed todos reported by vault updates and not yet copied. */
+    private final Queue<StateRef> consumedByUpdates = new ConcurrentLinkedQueue<>();
+    /** Consumptions copied from vault updates that the consumed walk has yet to reach. */
+    private final Set<StateRef> copiedFromUpdates = new HashSet<>();
+    private final TodoStatePager.Recent recentStates = new TodoStatePager.Recent(OVERLAP);
+    private final TodoStatePager.Recent recentConsumptions = new TodoStatePager.Recent(OVERLAP);
+    private ReplicationCheckpoint checkpoint;
+    private Subscription updates;
+
+    public TodoReplicationClient(CordaRPCOps proxy, TodoStore store, Path checkpointFile, int batchSize) {
+        this.proxy = proxy;
+        this.store = store;
+        this.checkpointFile = checkpointFile;
+        this.batchSize = batchSize;
+        this.pager = new TodoStatePager(proxy, batchSize);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2 || args.length > 3) {
+            throw new IllegalArgumentException("Usage: TodoReplicationClient <node address> <store directory> [batch size]");
+        }
+
+        final HostAndPort nodeAddress = HostAndPort.fromString(args[0]);
+        final Path directory = Files.createDirectories(Paths.get(args[1]));
+        final int batchSize = args.length == 3 ? Integer.parseInt(args[2]) : TodoStatePager.DEFAULT_PAGE_SIZE;
+        final CordaRPCClient client = new CordaRPCClient(nodeAddress, null, CordaRPCClientConfiguration.getDefault());
+
+        try (TodoStore store = new NdjsonTodoStore(directory.resolve("todos.ndjson"))) {
+            while (true) {
+                // Can be amended in the com.example.Main file.
+                final CordaRPCConnection connection;
+                try {
+                    connection = client.start("user1", "test");
+                } catch (RuntimeException ex) {
+                    logger.warn("Unable to connect to {}: {}", nodeAddress, ex.getMessage());
+                    TimeUnit.SECONDS.sleep(RECONNECT_DELAY_SECONDS);
+                    continue;
+                }
+                try {
+                    new TodoReplicationClient(connection.getProxy(), store, directory.resolve("checkpoint.properties"), batchSize).run();
+                } catch (RuntimeException ex) {
+                    logger.warn("Lost connection to {}, reconnecting: {}", nodeAddress, ex.getMessage());
+                } finally {
+                    connection.forceClose();
+                }
+                TimeUnit.SECONDS.sleep(RECONNECT_DELAY_SECONDS);
+            }
+        }
+    }
+
+    /** Replicates until the thread is interrupted or the connection fails. */
+    public void run() throws IOException, InterruptedException {
+        start();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                if (replicate()) {
+                    wakeUp.tryAcquire(IDLE_POLL_SECONDS, TimeUnit.SECONDS);
+                    wakeUp.drainPermits();
+                }
+            }
+        } finally {
+            stop();
+        }
+    }
+
+    /** Loads the checkpoint and starts listening for vault updates. */
+    void start() throws IOException {
+        checkpoint = ReplicationCheckpoint.load(checkpointFile);
+        logger.info("Resuming replication with {}", checkpoint);
+
+        // Only the update stream is needed, so ask for the smallest possible snapshot.
+        updates = proxy
+            .vaultTrackByWithPagingSpec(TodoState.class, criteria, new PageSpecification(DEFAULT_PAGE_NUM, 1))
+            .getFuture()
+            .subscribe(update -> {
+                for (StateAndRef<?> consumed : update.getConsumed()) {
+                    if (consumed.getState().getData() instanceof TodoState) consumedByUpdates.add(consumed.getRef());
+                }
+                wakeUp.release();
+            });
+    }
+
+    void stop() {
+        updates.unsubscribe();
+    }
+
+    /**
+     * Copies up to one batch of each walk into the store, and the consumptions reported since the last call. Returns
+     * whether both walks have caught up.
+     */
+    boolean replicate() throws IOException {
+        final int states = replicateStates();
+        replicateReportedConsumptions();
+        final int consumptions = replicateConsumptions();
+        return states < batchSize && consumptions < batchSize;
+    }
+
+    /** Copies up to one batch of states after the checkpoint, and returns how many there were. */
+    private int replicateStates() throws IOException {
+        final List<Map<String, Object>> records = new ArrayList<>(batchSize);
+        final TodoStatePager.Key key = pager.forEach(criteria, TodoStatePager.Order.RECORDED, checkpoint.getKey(),
+            recentStates, batchSize, (k, state, metadata) -> records.add(TodoRecords.flatten(state, metadata)));
+        if (records.isEmpty()) return 0;
+
+        store.append(records);
+        checkpoint = checkpoint.withKey(key);
+        checkpoint.store(checkpointFile);
+
+        final Duration lag = Duration.between(key.getTime(), Instant.now());
+        logger.info("Replicated {} todo states, {}, lag {} ms", records.size(), checkpoint, lag.toMillis());
+        return records.size();
+    }
+
+    /** Copies the consumptions vault updates have reported, as they are now in the vault. */
+    private void replicateReportedConsumptions() throws IOException {
+        final List<StateRef> refs = new ArrayList<>();
+        for (StateRef ref; (ref = consumedByUpdates.poll()) != null; ) refs.add(ref);
+        if (refs.isEmpty()) return;
+
+        final List<Map<String, Object>> records = new ArrayList<>(refs.size());
+        pager.forEach(new QueryCriteria.VaultQueryCriteria(Vault.StateStatus.CONSUMED, null, refs),
+            TodoStatePager.Order.CONSUMED, TodoStatePager.Key.START, Long.MAX_VALUE, (k, state, metadata) -> {
+                records.add(TodoRecords.consumption(state, metadata));
+                copiedFromUpdates.add(state.getRef());
+            });
+        if (records.isEmpty()) return;
+
+        store.append(records);
+        logger.info("Replicated {} todo consumptions as they happened", records.size());
+    }
+
+    /**
+     * Copies up to one batch of consumptions after the checkpoint, bar those already copied from vault updates, and
+     * returns how many the walk passed.
+     */
+    private int replicateConsumptions() throws IOException {
+        final List<Map<String, Object>> records = new ArrayList<>();
+        final int[] passed = { 0 };
+        final TodoStatePager.Key key = pager.forEach(consumedCriteria, TodoStatePager.Order.CONSUMED,
+            checkpoint.getConsumedKey(), recentConsumptions, batchSize, (k, state, metadata) -> {
+                passed[0]++;
+                if (!copiedFromUpdates.remove(state.getRef())) records.add(TodoRecords.consumption(state, metadata));
+            });
+        if (passed[0] == 0) return 0;
+
+        if (!records.isEmpty()) store.append(records);
+        checkpoint = checkpoint.withConsumedKey(key);
+        checkpoint.store(checkpointFile);
+        if (!records.isEmpty()) logger.info("Replicated {} earlier todo consumptions, {}", records.size(), checkpoint);
+        return passed[0];
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.client;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A local store that the replication client copies todo states into.
+ *
+ * Records are those produced by [com.example.query.TodoRecords]. Each version of a todo is identified by its txId and
+ * outputIndex. A consumption record carries only that key, the linearId, the status and the consumed time, which
+ * replace those of the version's record; it may arrive before the version's own record. Because the checkpoint is
+ * written after the batch, a batch may be appended twice if the client dies between the two; stores should treat txId
+ * and outputIndex as a key and ignore duplicates.
+ */
+public interface TodoStore extends Closeable {
+    /** Durably appends a batch of records. The checkpoint is only advanced once this returns. */
+    void append(List<Map<String, Object>> records) throws IOException;
+}
@@ -0,0 +1,154 @@
+package com.example.client;
+
+import com.example.flow.TodoArchiveFlow;
+import com.example.flow.TodoCompleteFlow;
+import com.example.flow.TodoCreateFlow;
+import com.example.state.TodoState;
+import com.google.common.util.concurrent.ListenableFuture;
+import net.corda.core.messaging.CordaRPCOps;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.node.internal.CordaRPCOpsImpl;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.MockNetwork.BasketOfNodes;
+import net.corda.testing.node.MockNetwork.MockNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class TodoReplicationClientTests {
+    private MockNetwork net;
+    private MockNode a;
+    private MockNode b;
+    private Path checkpointFile;
+    private final List<Map<String, Object>> replicated = new ArrayList<>();
+    private final TodoStore store = new TodoStore() {
+        @Override
+        public void append(List<Map<String, Object>> records) {
+            replicated.addAll(records);
+        }
+
+        @Override
+        public void close() {}
+    };
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setup() {
+        net = new MockNetwork();
+        BasketOfNodes nodes = net.createSomeNodes(2);
+        a = nodes.getPartyNodes().get(0);
+        b = nodes.getPartyNodes().get(1);
+        // For real nodes this happens automatically, but we have to manually register the flow for tests
+        for (MockNode node : nodes.getPartyNodes()) {
+            node.registerInitiatedFlow(TodoCreateFlow.Acceptor.class);
+            node.registerInitiatedFlow(TodoCompleteFlow.Acceptor.class);
+        }
+        net.runNetwork();
+        checkpointFile = folder.getRoot().toPath().resolve("checkpoint.properties");
+    }
+
+    @After
+    public void tearDown() {
+        net.stopNodes();
+    }
+
+    /** A client replicating a's vault, started from the checkpoint file. */
+    private TodoReplicationClient startClient() throws Exception {
+        final CordaRPCOps proxy = new CordaRPCOpsImpl(a.getServices(), a.getSmm(), a.getDatabase());
+        final TodoReplicationClient client = new TodoReplicationClient(proxy, store, checkpointFile, 10);
+        client.start();
+        return client;
+    }
+
+    private TodoState create() throws Exception {
+        ListenableFuture<SignedTransaction> future = a.getServices()
+            .startFlow(new TodoCreateFlow.Initiator("example title", "example description", b.info.getLegalIdentity()))
+            .getResultFuture();
+        net.runNetwork();
+        return (TodoState) future.get().getTx().getOutputs().get(0).getData();
+    }
+
+    /** Completes and archives [todo], which leaves its last version consumed with no successor. */
+    private void completeAndArchive(TodoState todo) throws Exception {
+        ListenableFuture<SignedTransaction> completed = b.getServices()
+            .startFlow(new TodoCompleteFlow.Initiator(todo.getLinearId())).getResultFuture();
+        net.runNetwork();
+        completed.get();
+
+        ListenableFuture<Integer> archived = a.getServices().startFlow(new TodoArchiveFlow(Duration.ZERO)).getResultFuture();
+        net.runNetwork();
+        assertEquals(Integer.valueOf(1), archived.get());
+    }
+
+    /** The status of each version, each record taking over from those before it, as a store keyed by version would. */
+    private Map<String, String> statuses() {
+        final Map<String, String> statuses = new LinkedHashMap<>();
+        for (Map<String, Object> record : replicated) {
+            statuses.put(record.get("txId") + ":" + record.get("outputIndex"), (String) record.get("status"));
+        }
+        return statuses;
+    }
+
+    @Test
+    public void consumptionsAreReplicatedAsTheyHappen() throws Exception {
+        final TodoReplicationClient client = startClient();
+        try {
+            final TodoState todo = create();
+            client.replicate();
+            assertEquals(Collections.singletonList("UNCONSUMED"), new ArrayList<>(statuses().values()));
+
+            completeAndArchive(todo);
+            client.replicate();
+            // The created version was consumed by completing it, and the completed one by archiving it.
+            assertEquals(2, statuses().size());
+            for (String status : statuses().values()) assertEquals("CONSUMED", status);
+        } finally {
+            client.stop();
+        }
+
+        // The consumed walk skipped what the updates had already copied.
+        final long consumptions = replicated.stream().filter(record -> !record.containsKey("title")).count();
+        assertEquals(2, consumptions);
+    }
+
+    @Test
+    public void consumptionsMissedWhileDownAreCaughtUp() throws Exception {
+        final TodoReplicationClient before = startClient();
+        final TodoState todo;
+        try {
+            todo = create();
+            before.replicate();
+        } finally {
+            before.stop();
+        }
+
+        completeAndArchive(todo);
+
+        final TodoReplicationClient after = startClient();
+        try {
+            after.replicate();
+        } finally {
+            after.stop();
+        }
+        assertEquals(2, statuses().size());
+        for (String status : statuses().values()) assertEquals("CONSUMED", status);
+        for (Map<String, Object> record : replicated) {
+            if (!record.containsKey("title")) assertNotNull(record.get("consumedTime"));
+        }
+    }
+}
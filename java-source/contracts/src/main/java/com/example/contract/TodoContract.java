@@ -0,0 +1,145 @@
+package com.example.contract;
+
+import com.example.model.TodoItem;
+import com.example.state.TodoState;
+import net.corda.core.contracts.AuthenticatedObject;
+import net.corda.core.contracts.CommandData;
+import net.corda.core.contracts.Contract;
+import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.TransactionForContract;
+import net.corda.core.contracts.UniqueIdentifier;
+import net.corda.core.crypto.SecureHash;
+import net.corda.core.identity.AbstractParty;
+
+import java.security.PublicKey;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static net.corda.core.contracts.ContractsDSL.requireSingleCommand;
+import static net.corda.core.contracts.ContractsDSL.requireThat;
+
+/**
+ * Created by varunmathur on 01/07/2017.
+ *
+ * - Create: no inputs, and one or more new, open todos with no reminders sent, all with the same owner and each with
+ *   a different assignee, signed by the owner and every assignee. Several outputs assign one todo to a team.
+ * - Complete: one open todo in, the same todo completed out, signed by its owner and assignee.
+ * - Remind: any number of open, overdue todos in, each with one more reminder sent out and nothing else changed,
+ *   signed by their owners. The assignees are not asked to sign, so reminders can be batched.
+ * - Archive: any number of completed todos in and none out, signed by their owners. Archiving only removes finished
+ *   todos from the unconsumed set; their last versions stay in the vault as consumed states.
+ */
+public class TodoContract implements Contract {
+    @Override
+    public void verify(TransactionForContract tx)
+    {
+        final AuthenticatedObject<Commands> command = requireSingleCommand(tx.getCommands(), Commands.class);
+        final List<TodoState> inputs = todos(tx.getInputs());
+        final List<TodoState> outputs = todos(tx.getOutputs());
+
+        if (command.getValue() instanceof Commands.Create) {
+            requireThat(require -> {
+                require.using("No inputs should be consumed when creating a todo.", inputs.isEmpty());
+                require.using("At least one todo should be created.", !outputs.isEmpty());
+                final Set<AbstractParty> assignees = new HashSet<>();
+                final Set<UniqueIdentifier> linearIds = new HashSet<>();
+                for (TodoState out : outputs) {
+                    final TodoItem item = out.getTodoItem();
+                    require.using("A new todo must not be complete.", !item.isComplete() && item.getCompletedAt() == null);
+                    require.using("A new todo must not have had reminders.", item.getRemindersSent() == 0);
+                    require.using("Todos created together must have the same owner.",
+                        out.getOwner().equals(outputs.get(0).getOwner()));
+                    require.using("Each assignee may only be given one todo.", assignees.add(out.getAssignee()));
+                    require.using("Each todo must have its own linearId.", linearIds.add(out.getLinearId()));
+                    require.using("The owner and the assignee must sign.",
+                        command.getSigners().containsAll(keys(out.getParticipants())));
+                }
+                return null;
+            });
+        } else if (command.getValue() instanceof Commands.Complete) {
+            requireThat(require -> {
+                require.using("Exactly one todo should be completed.", inputs.size() == 1 && outputs.size() == 1);
+                final TodoState in = inputs.get(0);
+                final TodoState out = outputs.get(0);
+                require.using("The todo must not already be complete.", !in.getTodoItem().isComplete());
+                require.using("The todo must be complete afterwards.", out.getTodoItem().isComplete());
+                require.using("The completion time must be recorded.", out.getTodoItem().getCompletedAt() != null);
+                require.using("Only completion may change.", sameExceptProgress(in, out)
+                    && in.getTodoItem().getRemindersSent() == out.getTodoItem().getRemindersSent());
+                require.using("The owner and the assignee must sign.",
+                    command.getSigners().containsAll(keys(out.getParticipants())));
+                return null;
+            });
+        } else if (command.getValue() instanceof Commands.Remind) {
+            requireThat(require -> {
+                require.using("At least one todo should be reminded.", !inputs.isEmpty());
+                require.using("Each todo reminded should have one output.", inputs.size() == outputs.size());
+                final Map<UniqueIdentifier, TodoState> outputsById = new HashMap<>();
+                for (TodoState out : outputs) outputsById.put(out.getLinearId(), out);
+                require.using("Each todo may only be reminded once per transaction.", outputsById.size() == outputs.size());
+                for (TodoState in : inputs) {
+                    final TodoState out = outputsById.get(in.getLinearId());
+                    require.using("Every todo reminded must be in the outputs.", out != null);
+                    require.using("Only open todos with a due date are reminded.",
+                        !in.getTodoItem().isComplete() && in.getTodoItem().getDueDate() != null);
+                    require.using("A todo has at most " + TodoState.MAX_REMINDERS + " reminders.",
+                        in.getTodoItem().getRemindersSent() < TodoState.MAX_REMINDERS);
+                    require.using("Only the reminder count may change, by one.", sameExceptProgress(in, out)
+                        && !out.getTodoItem().isComplete() && out.getTodoItem().getCompletedAt() == null
+                        && out.getTodoItem().getRemindersSent() == in.getTodoItem().getRemindersSent() + 1);
+                    require.using("The owner must sign.", command.getSigners().contains(in.getOwner().getOwningKey()));
+                }
+                return null;
+            });
+        } else if (command.getValue() instanceof Commands.Archive) {
+            requireThat(require -> {
+                require.using("At least one todo should be archived.", !inputs.isEmpty());
+                require.using("No todos should be created when archiving.", outputs.isEmpty());
+                for (TodoState in : inputs) {
+                    require.using("Only completed todos are archived.", in.getTodoItem().isComplete());
+                    require.using("The owner must sign.", command.getSigners().contains(in.getOwner().getOwningKey()));
+                }
+                return null;
+            });
+        } else {
+            throw new IllegalArgumentException("Unrecognised command " + command.getValue());
+        }
+    }
+
+    public interface Commands extends CommandData {
+        class Create implements TodoContract.Commands {}
+        class Complete implements TodoContract.Commands {}
+        class Remind implements TodoContract.Commands {}
+        class Archive implements TodoContract.Commands {}
+    }
+
+    private static List<TodoState> todos(List<ContractState> states) {
+        return states.stream().filter(TodoState.class::isInstance).map(TodoState.class::cast).collect(Collectors.toList());
+    }
+
+    private static List<PublicKey> keys(List<AbstractParty> parties) {
+        return parties.stream().map(AbstractParty::getOwningKey).collect(Collectors.toList());
+    }
+
+    /** Whether [out] is the same todo as [in], ignoring completion and reminders. */
+    private static boolean sameExceptProgress(TodoState in, TodoState out) {
+        final TodoItem a = in.getTodoItem();
+        final TodoItem b = out.getTodoItem();
+        return in.getLinearId().equals(out.getLinearId())
+            && in.getOwner().equals(out.getOwner())
+            && in.getAssignee().equals(out.getAssignee())
+            && Objects.equals(a.getTitle(), b.getTitle())
+            && Objects.equals(a.getDescription(), b.getDescription())
+            && Objects.equals(a.getCreated(), b.getCreated())
+            && Objects.equals(a.getDueDate(), b.getDueDate());
+    }
+
+    /** This is a reference to the underlying legal contract template and associated parameters. */
+    private final SecureHash legalContractReference = SecureHash.sha256("Todo contract template and params");
+    @Override public final SecureHash getLegalContractReference() { return legalContractReference; }
+}
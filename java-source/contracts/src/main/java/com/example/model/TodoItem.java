@@ -0,0 +1,106 @@
+package com.example.model;
+
+import net.corda.core.serialization.CordaSerializable;
+
+import java.time.Instant;
+
+/**
+ * Created by varunmathur on 01/07/2017.
+ */
+@CordaSerializable
+public class TodoItem {
+    private String title;
+    private String description;
+    private boolean complete;
+    private Instant created;
+    private Instant dueDate;
+    private int remindersSent;
+    private Instant completedAt;
+
+    public TodoItem(String title, String description, boolean complete)
+    {
+        this(title, description, complete, null);
+    }
+
+    /**
+     * @param created when the todo was first created. Later versions of a todo carry it over unchanged; todos created
+     * before it was recorded have none.
+     */
+    public TodoItem(String title, String description, boolean complete, Instant created)
+    {
+        this(title, description, complete, created, null, 0);
+    }
+
+    /**
+     * @param dueDate when the todo should be complete by, or null if it has no due date.
+     * @param remindersSent how many reminders have been sent since the due date passed; see [TodoState].
+     */
+    public TodoItem(String title, String description, boolean complete, Instant created, Instant dueDate,
+                    int remindersSent)
+    {
+        this(title, description, complete, created, dueDate, remindersSent, null);
+    }
+
+    /**
+     * @param completedAt when the todo was completed, or null if it is open or was completed before completion times
+     * were recorded.
+     */
+    public TodoItem(String title, String description, boolean complete, Instant created, Instant dueDate,
+                    int remindersSent, Instant completedAt)
+    {
+        this.title = title;
+        this.description = description;
+        this.complete = complete;
+        this.created = created;
+        this.dueDate = dueDate;
+        this.remindersSent = remindersSent;
+        this.completedAt = completedAt;
+    }
+
+    public String getTitle()
+    {
+        return title;
+    }
+
+    public String getDescription()
+    {
+        return description;
+    }
+
+    public boolean isComplete()
+    {
+        return complete;
+    }
+
+    public Instant getCreated()
+    {
+        return created;
+    }
+
+    public Instant getDueDate()
+    {
+        return dueDate;
+    }
+
+    public int getRemindersSent()
+    {
+        return remindersSent;
+    }
+
+    public Instant getCompletedAt()
+    {
+        return completedAt;
+    }
+
+    /** This item, completed at [at]. */
+    public TodoItem completed(Instant at)
+    {
+        return new TodoItem(title, description, true, created, dueDate, remindersSent, at);
+    }
+
+    /** This item after one more reminder. */
+    public TodoItem reminded()
+    {
+        return new TodoItem(title, description, complete, created, dueDate, remindersSent + 1, completedAt);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.schema;
+
+/**
+ * The family of schemas for [com.example.state.TodoState].
+ */
+public class TodoSchema {
+}
@@ -0,0 +1,100 @@
+package com.example.schema;
+
+import net.corda.core.schemas.MappedSchema;
+import net.corda.core.schemas.PersistentState;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.time.Instant;
+import java.util.Collections;
+
+/**
+ * A todo as columns of the todo_states table, so that the vault can filter and sort todos in the database rather than
+ * returning all of them. Every column a query can filter or sort on is indexed.
+ */
+public class TodoSchemaV1 extends MappedSchema {
+    public static final TodoSchemaV1 INSTANCE = new TodoSchemaV1();
+
+    private TodoSchemaV1() {
+        super(TodoSchema.class, 1, Collections.singletonList(PersistentTodo.class));
+    }
+
+    @Entity
+    @Table(name = "todo_states", indexes = {
+        @Index(name = "todo_owner_idx", columnList = "owner_name"),
+        @Index(name = "todo_assignee_idx", columnList = "assignee_name"),
+        @Index(name = "todo_complete_idx", columnList = "complete"),
+        @Index(name = "todo_title_idx", columnList = "title"),
+        @Index(name = "todo_created_idx", columnList = "created_time"),
+        @Index(name = "todo_due_idx", columnList = "due_time"),
+        @Index(name = "todo_next_reminder_idx", columnList = "owner_name,next_reminder_time"),
+        @Index(name = "todo_completed_idx", columnList = "owner_name,completed_time"),
+        @Index(name = "todo_linear_id_idx", columnList = "linear_id")
+    })
+    public static class PersistentTodo extends PersistentState {
+        @Column(name = "owner_name")
+        private String ownerName;
+
+        @Column(name = "assignee_name")
+        private String assigneeName;
+
+        @Column(name = "title")
+        private String title;
+
+        @Column(name = "complete")
+        private boolean complete;
+
+        @Column(name = "created_time")
+        private Instant createdTime;
+
+        @Column(name = "due_time")
+        private Instant dueTime;
+
+        @Column(name = "reminders_sent")
+        private int remindersSent;
+
+        /** See [com.example.state.TodoState.getNextReminderTime]; null when no reminder is due. */
+        @Column(name = "next_reminder_time")
+        private Instant nextReminderTime;
+
+        /** Null while open, and for todos completed before completion times were recorded. */
+        @Column(name = "completed_time")
+        private Instant completedTime;
+
+        @Column(name = "linear_id")
+        private String linearId;
+
+        public PersistentTodo(String ownerName, String assigneeName, String title, boolean complete,
+                              Instant createdTime, Instant dueTime, int remindersSent, Instant nextReminderTime,
+                              Instant completedTime, String linearId)
+        {
+            this.ownerName = ownerName;
+            this.assigneeName = assigneeName;
+            this.title = title;
+            this.complete = complete;
+            this.createdTime = createdTime;
+            this.dueTime = dueTime;
+            this.remindersSent = remindersSent;
+            this.nextReminderTime = nextReminderTime;
+            this.completedTime = completedTime;
+            this.linearId = linearId;
+        }
+
+        /** For Hibernate. */
+        public PersistentTodo() {
+        }
+
+        public String getOwnerName() { return ownerName; }
+        public String getAssigneeName() { return assigneeName; }
+        public String getTitle() { return title; }
+        public boolean isComplete() { return complete; }
+        public Instant getCreatedTime() { return createdTime; }
+        public Instant getDueTime() { return dueTime; }
+        public int getRemindersSent() { return remindersSent; }
+        public Instant getNextReminderTime() { return nextReminderTime; }
+        public Instant getCompletedTime() { return completedTime; }
+        public String getLinearId() { return linearId; }
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.state;
+
+import com.example.contract.TodoContract;
+import com.example.model.TodoItem;
+import com.example.schema.TodoSchemaV1;
+import net.corda.core.contracts.LinearState;
+import net.corda.core.contracts.SchedulableState;
+import net.corda.core.contracts.ScheduledActivity;
+import net.corda.core.contracts.StateRef;
+import net.corda.core.contracts.UniqueIdentifier;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.flows.FlowLogicRefFactory;
+import net.corda.core.identity.AbstractParty;
+import net.corda.core.identity.Party;
+import net.corda.core.schemas.MappedSchema;
+import net.corda.core.schemas.PersistentState;
+import net.corda.core.schemas.QueryableState;
+import org.jetbrains.annotations.NotNull;
+
+import java.security.PublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static net.corda.core.crypto.CryptoUtils.getKeys;
+
+/**
+ * Created by varunmathur on 01/07/2017.
+ *
+ * A todo with a due date is schedulable. Once the due date has passed, its owner sends a reminder, and if the todo is
+ * still open [ESCALATE_AFTER] later, an escalation; each is a new version of the todo with one more reminder sent.
+ * Only the next of these is ever scheduled for a state, and none once the todo is complete, so the node's scheduler
+ * holds at most one entry per open todo. Reminder times are rounded up to a [REMINDER_WINDOW] boundary, so that
+ * todos coming due together are reminded by a single batch flow; see [getNextReminderTime].
+ *
+ * A completed todo is schedulable too: [ARCHIVE_AFTER] after completion its owner archives it, consuming it without
+ * a successor so that it leaves the set of unconsumed todos every vault query scans. See [getArchiveTime].
+ */
+public class TodoState implements LinearState, QueryableState, SchedulableState {
+    /** A reminder when the due date passes, then an escalation. */
+    public static final int MAX_REMINDERS = 2;
+    public static final Duration ESCALATE_AFTER = Duration.ofDays(1);
+    public static final Duration REMINDER_WINDOW = Duration.ofMinutes(1);
+    public static final Duration ARCHIVE_AFTER = Duration.ofDays(30);
+    public static final Duration ARCHIVE_WINDOW = Duration.ofHours(1);
+
+    /** Named rather than referenced, as the flows are not part of the contract attachment. */
+    static private final String REMINDER_FLOW = "com.example.flow.TodoReminderFlow";
+    static private final String ARCHIVE_FLOW = "com.example.flow.TodoArchiveFlow";
+
+    private final TodoItem todoItem;
+    private final Party owner;
+    private final Party assignee;
+    private final UniqueIdentifier linearId;
+    private final TodoContract todoContract = new TodoContract();
+
+    public TodoState(TodoItem todoItem, Party owner, Party assignee)
+    {
+        this(todoItem, owner, assignee, new UniqueIdentifier());
+    }
+
+    /**
+     * Creates a later version of an existing todo. Successive versions share a [linearId], which is what ties a todo's
+     * history together in the vault.
+     */
+    public TodoState(TodoItem todoItem, Party owner, Party assignee, UniqueIdentifier linearId)
+    {
+        this.todoItem = todoItem;
+        this.owner = owner;
+        this.assignee = assignee;
+        this.linearId = linearId;
+    }
+
+    public TodoItem getTodoItem()
+    {
+        return todoItem;
+    }
+
+    public Party getOwner()
+    {
+        return owner;
+    }
+
+    public Party getAssignee()
+    {
+        return assignee;
+    }
+
+    @NotNull
+    @Override
+    public UniqueIdentifier getLinearId()
+    {
+        return linearId;
+    }
+    @Override public List<AbstractParty> getParticipants() {
+        return Arrays.asList(owner, assignee);
+    }
+
+    @Override public boolean isRelevant(Set<? extends PublicKey> ourKeys) {
+        final List<PublicKey> partyKeys = Stream.of(owner, assignee)
+            .flatMap(party -> getKeys(party.getOwningKey()).stream())
+            .collect(toList());
+        return ourKeys
+            .stream()
+            .anyMatch(partyKeys::contains);
+
+    }
+    @Override
+    public TodoContract getContract()
+    {
+        return todoContract;
+    }
+
+    /**
+     * Returns when the owner should next remind the assignee, or null if no reminder is due: the todo is complete,
+     * has no due date or has had every reminder. The time is rounded up to the next [REMINDER_WINDOW] boundary.
+     */
+    public Instant getNextReminderTime()
+    {
+        final Instant dueDate = todoItem.getDueDate();
+        if (todoItem.isComplete() || dueDate == null || todoItem.getRemindersSent() >= MAX_REMINDERS) return null;
+        final Instant at = todoItem.getRemindersSent() == 0 ? dueDate : dueDate.plus(ESCALATE_AFTER);
+        return roundUp(at, REMINDER_WINDOW);
+    }
+
+    /**
+     * Returns when the owner should archive this todo, [ARCHIVE_AFTER] after it was completed and rounded up to the
+     * next [ARCHIVE_WINDOW] boundary, or null if it is open or its completion time was not recorded.
+     */
+    public Instant getArchiveTime()
+    {
+        final Instant completedAt = todoItem.getCompletedAt();
+        if (!todoItem.isComplete() || completedAt == null) return null;
+        return roundUp(completedAt.plus(ARCHIVE_AFTER), ARCHIVE_WINDOW);
+    }
+
+    @Override public ScheduledActivity nextScheduledActivity(StateRef thisStateRef, FlowLogicRefFactory flowLogicRefFactory) {
+        final Instant reminder = getNextReminderTime();
+        if (reminder != null) return activity(REMINDER_FLOW, reminder, thisStateRef, flowLogicRefFactory);
+        final Instant archive = getArchiveTime();
+        if (archive != null) return activity(ARCHIVE_FLOW, archive, thisStateRef, flowLogicRefFactory);
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ScheduledActivity activity(String flowName, Instant at, StateRef thisStateRef,
+                                       FlowLogicRefFactory flowLogicRefFactory) {
+        final Class<? extends FlowLogic<?>> flowClass;
+        try {
+            flowClass = (Class<? extends FlowLogic<?>>) Class.forName(flowName, true, getClass().getClassLoader());
+        } catch (ClassNotFoundException ex) {
+            // Only the node schedules, and the node always has the flows; anywhere else there is nothing to run.
+            return null;
+        }
+        return new ScheduledActivity(flowLogicRefFactory.create(flowClass, thisStateRef), at);
+    }
+
+    private static Instant roundUp(Instant at, Duration window) {
+        final long millis = window.toMillis();
+        return Instant.ofEpochMilli(Math.floorDiv(at.toEpochMilli() + millis - 1, millis) * millis);
+    }
+
+    @Override public PersistentState generateMappedObject(MappedSchema schema) {
+        if (schema instanceof TodoSchemaV1) {
+            return new TodoSchemaV1.PersistentTodo(
+                owner.getName().toString(),
+                assignee.getName().toString(),
+                todoItem.getTitle(),
+                todoItem.isComplete(),
+                todoItem.getCreated(),
+                todoItem.getDueDate(),
+                todoItem.getRemindersSent(),
+                getNextReminderTime(),
+                todoItem.getCompletedAt(),
+                linearId.getId().toString());
+        } else {
+            throw new IllegalArgumentException("Unrecognised schema " + schema);
+        }
+    }
+
+    @Override public Iterable<MappedSchema> supportedSchemas() {
+        return Collections.singletonList(TodoSchemaV1.INSTANCE);
+    }
+
+}
@@ -0,0 +1,355 @@
+package com.example.contract;
+
+import com.example.model.TodoItem;
+import com.example.state.TodoState;
+import net.corda.core.identity.Party;
+import org.junit.Test;
+
+import java.security.PublicKey;
+import java.time.Duration;
+import java.time.Instant;
+
+import static net.corda.testing.CoreTestUtils.*;
+
+public class TodoContractTests {
+    static private final Party owner = getMEGA_CORP();
+    static private final Party assignee = getMINI_CORP();
+    static private final PublicKey[] bothKeys = { getMEGA_CORP_PUBKEY(), getMINI_CORP_PUBKEY() };
+    static private final PublicKey[] ownerKey = { getMEGA_CORP_PUBKEY() };
+    static private final PublicKey[] assigneeKey = { getMINI_CORP_PUBKEY() };
+    static private final PublicKey[] ownerAndBothAssigneesKeys =
+        { getMEGA_CORP_PUBKEY(), getMINI_CORP_PUBKEY(), getALICE_PUBKEY() };
+    static private final Instant now = Instant.parse("2017-07-01T12:00:00Z");
+
+    /** An open todo that was due a day ago. */
+    private static TodoState open() {
+        return new TodoState(new TodoItem("title", "description", false, now.minus(Duration.ofDays(7)),
+            now.minus(Duration.ofDays(1)), 0), owner, assignee);
+    }
+
+    /** [todo] with its item replaced, keeping its parties and linearId. */
+    private static TodoState with(TodoState todo, TodoItem item) {
+        return new TodoState(item, todo.getOwner(), todo.getAssignee(), todo.getLinearId());
+    }
+
+    @Test
+    public void createVerifies() {
+        ledger(ledgerDSL -> {
+            ledgerDSL.transaction(txDSL -> {
+                txDSL.output(open());
+                txDSL.command(bothKeys, TodoContract.Commands.Create::new);
+                txDSL.verifies();
+                return null;
+            });
+            return null;
+        });
+    }
+
+    @Test
+    public void createMustHaveNoInputs() {
+        ledger(ledgerDSL -> {
+            ledgerDSL.transaction(txDSL -> {
+                txDSL.input(open());
+                txDSL.output(open());
+                txDSL.command(bothKeys, TodoContract.Commands.Create::new);
+                txDSL.failsWith("No inputs should be consumed when creating a todo.");
+                return null;
+            });
+            return null;
+        });
+    }
+
+    @Test
+    public void createMustNotHaveSentReminders() {
+        ledger(ledgerDSL -> {
+            ledgerDSL.transaction(txDSL -> {
+                txDSL.output(with(open(), open().getTodoItem().reminded()));
+                txDSL.command(bothKeys, TodoContract.Commands.Create::new);
+                txDSL.failsWith("A new todo must not have had reminders.");
+                return null;
+            });
+            return null;
+        });
+    }
+
+    @Test
+    public void assigneeMustSignCreate() {
+        ledger(ledgerDSL -> {
+            ledgerDSL.transaction(txDSL -> {
+                txDSL.output(open());
+                txDSL.command(ownerKey, TodoContract.Commands.Create::new);
+                txDSL.failsWith("The owner and the assignee must sign.");
+                return null;
+            });
+            return null;
+        });
+    }
+
+    @Test
+    public void createVerifiesForSeveralAssignees() {
+        ledger(ledgerDSL -> {
+            ledgerDSL.transaction(txDSL -> {
+                txDSL.output(open());
+                txDSL.output(new TodoState(open().getTodoItem(), owner, getALICE()));
+                txDSL.command(ownerAndBothAssigneesKeys, TodoContract.Commands.Create::new);
+                txDSL.verifies();
+                return null;
+            });
+            return null;
+        });
+    }
+
+    @Test
+    public void createMustHaveOneOwner() {
+        ledger(ledgerDSL -> {
+            ledgerDSL.transaction(txDSL -> {
+                txDSL.output(open());
+                txDSL.output(new TodoState(open().getTodoItem(), getALICE(), getBOB()));
+                txDSL.command(new PublicKey[] { getMEGA_CORP_PUBKEY(), getMINI_CORP_PUBKEY(), getALICE_PUBKEY(),
+                    getBOB_PUBKEY() }, TodoContract.Commands.Create::new);
+                txDSL.failsWith("Todos created together must have the same owner.");
+                return null;
+            });
+            return null;
+        });
+    }
+
+    @Test
+    public void createMustNotGiveAnAssigneeTwoTodos() {
+        ledger(ledgerDSL -> {
+            ledgerDSL.transaction(txDSL -> {
+                txDSL.output(open());
+                txDSL.output(open());
+                txDSL.command(bothKeys, TodoContract.Commands.Create::new);
+                txDSL.failsWith("Each assignee may only be given one todo.");
+                return null;
+            });
+            return null;
+        });
+    }
+
+    @Test
+    public void createMustGiveEachTodoItsOwnLinearId() {
+        TodoState todo = open();
+        ledger(ledgerDSL -> {
+            ledgerDSL.transaction(txDSL -> {
+                txDSL.output(todo);
+                txDSL.output(new TodoState(todo.getTodoItem(), owner, getALICE(), todo.getLinearId()));
+                txDSL.command(ownerAndBothAssigneesKeys, TodoContract.Commands.Create::new);
+                txDSL.failsWith("Each todo must have its own linearId.");
+                return null;
+            });
+            return null;
+        });
+    }
+
+    @Test
+    public void everyAssigneeMustSignCreate() {
+        ledger(ledgerDSL -> {
+            ledgerDSL.transaction(txDSL -> {
+                txDSL.output(open());
+                txDSL.output(new TodoState(open().getTodoItem(), owner, getALICE()));
+                txDSL.command(bothKeys, TodoContract.Commands.Create::new);
+                txDSL.failsWith("The owner and the assignee must sign.");
+                return null;
+            });
+            return null;
+        });
+    }
+
+    @Test
+    public void completeVerifies() {
+        TodoState todo = open();
+        ledger(ledgerDSL -> {
+            ledgerDSL.transaction(txDSL -> {
+                txDSL.input(todo);
+                txDSL.output(with(todo, todo.getTodoItem().completed(now)));
+                txDSL.command(bothKeys, TodoContract.Commands.Complete::new);
+                txDSL.verifies();
+                return null;
+            });
+            return null;
+        });
+    }
+
+    @Test
+    public void completeMustNotCompleteACompletedTodo() {
+        TodoState todo = with(open(), open().getTodoItem().completed(now));
+        ledger(ledgerDSL -> {
+            ledgerDSL.transaction(txDSL -> {
+                txDSL.input(todo);
+                txDSL.output(with(todo, todo.getTodoItem().completed(now.plusSeconds(60))));
+                txDSL.command(bothKeys, TodoContract.Commands.Complete::new);
+                txDSL.failsWith("The todo must not already be complete.");
+                return null;
+            });
+            return null;
+        });
+    }
+
+    @Test
+    public void completeMustRecordTheCompletionTime() {
+        TodoState todo = open();
+        ledger(ledgerDSL -> {
+            ledgerDSL.transaction(txDSL -> {
+                txDSL.input(todo);
+                txDSL.output(with(todo, todo.getTodoItem().completed(null)));
+                txDSL.command(bothKeys, TodoContract.Commands.Complete::new);
+                txDSL.failsWith("The completion time must be recorded.");
+                return null;
+            });
+            return null;
+        });
+    }
+
+    @Test
+    public void completeMustNotChangeTheTitle() {
+        TodoState todo = open();
+        TodoItem item = todo.getTodoItem();
+        ledger(ledgerDSL -> {
+            ledgerDSL.transaction(txDSL -> {
+                txDSL.input(todo);
+                txDSL.output(with(todo, new TodoItem("another title", item.getDescription(), false, item.getCreated(),
+                    item.getDueDate(), 0).completed(now)));
+                txDSL.command(bothKeys, TodoContract.Commands.Complete::new);
+                txDSL.failsWith("Only completion may change.");
+                return null;
+            });
+            return null;
+        });
+    }
+
+    @Test
+    public void completeMustNotChangeTheOwner() {
+        TodoState todo = open();
+        ledger(ledgerDSL -> {
+            ledgerDSL.transaction(txDSL -> {
+                txDSL.input(todo);
+                txDSL.output(new TodoState(todo.getTodoItem().completed(now), getALICE(), assignee, todo.getLinearId()));
+                txDSL.command(new PublicKey[] { getMEGA_CORP_PUBKEY(), getMINI_CORP_PUBKEY(), getALICE_PUBKEY() },
+                    TodoContract.Commands.Complete::new);
+                txDSL.failsWith("Only completion may change.");
+                return null;
+            });
+            return null;
+        });
+    }
+
+    @Test
+    public void remindVerifiesWithOnlyTheOwnersSignature() {
+        TodoState todo = open();
+        ledger(ledgerDSL -> {
+            ledgerDSL.transaction(txDSL -> {
+                txDSL.input(todo);
+                txDSL.output(with(todo, todo.getTodoItem().reminded()));
+                txDSL.command(ownerKey, TodoContract.Commands.Remind::new);
+                txDSL.verifies();
+                return null;
+            });
+            return null;
+        });
+    }
+
+    @Test
+    public void remindMustOnlyChangeTheReminderCount() {
+        TodoState todo = open();
+        TodoItem item = todo.getTodoItem();
+        ledger(ledgerDSL -> {
+            ledgerDSL.transaction(txDSL -> {
+                txDSL.input(todo);
+                txDSL.output(with(todo, new TodoItem(item.getTitle(), "another description", false, item.getCreated(),
+                    item.getDueDate(), 1)));
+                txDSL.command(ownerKey, TodoContract.Commands.Remind::new);
+                txDSL.failsWith("Only the reminder count may change, by one.");
+                return null;
+            });
+            return null;
+        });
+    }
+
+    @Test
+    public void remindMustNotGoPastTheMaximum() {
+        TodoItem item = open().getTodoItem();
+        TodoState todo = with(open(), new TodoItem(item.getTitle(), item.getDescription(), false, item.getCreated(),
+            item.getDueDate(), TodoState.MAX_REMINDERS));
+        ledger(ledgerDSL -> {
+            ledgerDSL.transaction(txDSL -> {
+                txDSL.input(todo);
+                txDSL.output(with(todo, todo.getTodoItem().reminded()));
+                txDSL.command(ownerKey, TodoContract.Commands.Remind::new);
+                txDSL.failsWith("A todo has at most " + TodoState.MAX_REMINDERS + " reminders.");
+                return null;
+            });
+            return null;
+        });
+    }
+
+    @Test
+    public void ownerMustSignRemind() {
+        TodoState todo = open();
+        ledger(ledgerDSL -> {
+            ledgerDSL.transaction(txDSL -> {
+                txDSL.input(todo);
+                txDSL.output(with(todo, todo.getTodoItem().reminded()));
+                txDSL.command(assigneeKey, TodoContract.Commands.Remind::new);
+                txDSL.failsWith("The owner must sign.");
+                return null;
+            });
+            return null;
+        });
+    }
+
+    @Test
+    public void archiveVerifiesWithOnlyTheOwnersSignature() {
+        ledger(ledgerDSL -> {
+            ledgerDSL.transaction(txDSL -> {
+                txDSL.input(with(open(), open().getTodoItem().completed(now)));
+                txDSL.command(ownerKey, TodoContract.Commands.Archive::new);
+                txDSL.verifies();
+                return null;
+            });
+            return null;
+        });
+    }
+
+    @Test
+    public void archiveMustNotArchiveAnOpenTodo() {
+        ledger(ledgerDSL -> {
+            ledgerDSL.transaction(txDSL -> {
+                txDSL.input(open());
+                txDSL.command(ownerKey, TodoContract.Commands.Archive::new);
+                txDSL.failsWith("Only completed todos are archived.");
+                return null;
+            });
+            return null;
+        });
+    }
+
+    @Test
+    public void archiveMustHaveNoOutputs() {
+        TodoState todo = with(open(), open().getTodoItem().completed(now));
+        ledger(ledgerDSL -> {
+            ledgerDSL.transaction(txDSL -> {
+                txDSL.input(todo);
+                txDSL.output(todo);
+                txDSL.command(ownerKey, TodoContract.Commands.Archive::new);
+                txDSL.failsWith("No todos should be created when archiving.");
+                return null;
+            });
+            return null;
+        });
+    }
+
+    @Test
+    public void ownerMustSignArchive() {
+        ledger(ledgerDSL -> {
+            ledgerDSL.transaction(txDSL -> {
+                txDSL.input(with(open(), open().getTodoItem().completed(now)));
+                txDSL.command(assigneeKey, TodoContract.Commands.Archive::new);
+                txDSL.failsWith("The owner must sign.");
+                return null;
+            });
+            return null;
+        });
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import net.corda.core.utilities.ProgressTracker;
+
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * The Flight Recorder side of [TodoEvents], which only touches this class once it knows jdk.jfr is there. Each
+ * event is created and checked against the running recordings before any of its fields are filled in, so events no
+ * recording wants cost one check.
+ */
+final class JfrEvents {
+    @Name("com.example.HttpRequest")
+    @Label("HTTP Request")
+    @Category({ "Todo", "Web" })
+    @Description("A request handled by the todo web API, until its response was handed back to the web server.")
+    @StackTrace(false)
+    static class HttpRequestEvent extends Event implements TodoEvents.HttpRequest {
+        @Label("Method")
+        String method;
+        @Label("Path")
+        String path;
+        @Label("Status")
+        int status;
+
+        @Override
+        public void end(int status) {
+            end();
+            if (shouldCommit()) {
+                this.status = status;
+                commit();
+            }
+        }
+    }
+
+    @Name("com.example.RpcCall")
+    @Label("RPC Call")
+    @Category({ "Todo", "RPC" })
+    @Description("A call from the web server to the node's CordaRPCOps. Calls returning an observable end when it is returned.")
+    @StackTrace(false)
+    static class RpcCallEvent extends Event implements TodoEvents.RpcCall {
+        @Label("Method")
+        String method;
+        @Label("Connection")
+        @Description("The pooled connection used, or -1 for the web server's own.")
+        int connection;
+        @Label("Failed")
+        boolean failed;
+
+        @Override
+        public void end(boolean failed) {
+            end();
+            if (shouldCommit()) {
+                this.failed = failed;
+                commit();
+            }
+        }
+    }
+
+    @Name("com.example.VaultQuery")
+    @Label("Vault Query")
+    @Category({ "Todo", "Vault" })
+    @Description("A vault read by a todo flow, or by the web server over RPC.")
+    @StackTrace(false)
+    static class VaultQueryEvent extends Event implements TodoEvents.VaultQuery {
+        @Label("Source")
+        String source;
+        @Label("State Type")
+        String stateType;
+        @Label("States")
+        int states;
+        @Label("Total States Available")
+        long totalStatesAvailable;
+
+        @Override
+        public void end(int states, long totalStatesAvailable) {
+            end();
+            if (shouldCommit()) {
+                this.states = states;
+                this.totalStatesAvailable = totalStatesAvailable;
+                commit();
+            }
+        }
+    }
+
+    @Name("com.example.FlowStep")
+    @Label("Flow Step")
+    @Category({ "Todo", "Flow" })
+    @Description("A step of a flow's progress tracker, from entering it until the next step at the same level or above.")
+    @StackTrace(false)
+    static class FlowStepEvent extends Event {
+        @Label("Flow")
+        String flow;
+        @Label("Run Id")
+        String runId;
+        @Label("Step")
+        String step;
+        @Label("Depth")
+        @Description("0 for the flow's own steps, 1 for those of its subflows, and so on.")
+        int depth;
+    }
+
+    private static final EventType FLOW_STEP = EventType.getEventType(FlowStepEvent.class);
+
+    /** The open step of each tracker in one flow's tree, ended as the flow moves on. */
+    private static class FlowSteps {
+        private final String flow;
+        private final String runId;
+        private final Map<ProgressTracker, FlowStepEvent> open = new IdentityHashMap<>();
+
+        FlowSteps(String flow, String runId) {
+            this.flow = flow;
+            this.runId = runId;
+        }
+
+        synchronized void onChange(ProgressTracker.Change change) {
+            if (change instanceof ProgressTracker.Change.Position) {
+                begin(change.getProgressTracker(), ((ProgressTracker.Change.Position) change).getNewStep());
+            }
+        }
+
+        /** Ends [tracker]'s current step, and whatever its subflows were doing in it, and begins [step]. */
+        synchronized void begin(ProgressTracker tracker, ProgressTracker.Step step) {
+            final Iterator<Map.Entry<ProgressTracker, FlowStepEvent>> it = open.entrySet().iterator();
+            while (it.hasNext()) {
+                final Map.Entry<ProgressTracker, FlowStepEvent> entry = it.next();
+                if (isWithin(entry.getKey(), tracker)) {
+                    finish(entry.getValue());
+                    it.remove();
+                }
+            }
+            if (step == ProgressTracker.UNSTARTED.INSTANCE || step == ProgressTracker.DONE.INSTANCE) return;
+
+            final FlowStepEvent event = new FlowStepEvent();
+            event.flow = flow;
+            event.runId = runId;
+            event.step = step.getLabel();
+            event.depth = depth(tracker);
+            event.begin();
+            open.put(tracker, event);
+        }
+
+        synchronized void endAll() {
+            open.values().forEach(FlowSteps::finish);
+            open.clear();
+        }
+
+        private static void finish(FlowStepEvent event) {
+            event.end();
+            if (event.shouldCommit()) event.commit();
+        }
+    }
+
+    private JfrEvents() {}
+
+    static TodoEvents.HttpRequest httpRequest(String method, String path) {
+        final HttpRequestEvent event = new HttpRequestEvent();
+        if (!event.isEnabled()) return TodoEvents.HttpRequest.NONE;
+        event.method = method;
+        event.path = path;
+        event.begin();
+        return event;
+    }
+
+    static TodoEvents.RpcCall rpcCall(String method, int connection) {
+        final RpcCallEvent event = new RpcCallEvent();
+        if (!event.isEnabled()) return TodoEvents.RpcCall.NONE;
+        event.method = method;
+        event.connection = connection;
+        event.begin();
+        return event;
+    }
+
+    static TodoEvents.VaultQuery vaultQuery(String source, Class<?> stateType) {
+        final VaultQueryEvent event = new VaultQueryEvent();
+        if (!event.isEnabled()) return TodoEvents.VaultQuery.NONE;
+        event.source = source;
+        event.stateType = stateType == null ? null : stateType.getName();
+        event.begin();
+        return event;
+    }
+
+    static void recordSteps(String flow, String runId, ProgressTracker tracker) {
+        // By the time a subflow is called its tracker is a child of its parent's, whose changes include its own.
+        if (tracker == null || tracker.getParent() != null || !FLOW_STEP.isEnabled()) return;
+
+        final FlowSteps steps = new FlowSteps(flow, runId);
+        steps.begin(tracker, tracker.getCurrentStep());
+        tracker.getChanges().subscribe(steps::onChange, error -> steps.endAll(), steps::endAll);
+    }
+
+    private static int depth(ProgressTracker tracker) {
+        int depth = 0;
+        for (ProgressTracker parent = tracker.getParent(); parent != null; parent = parent.getParent()) depth++;
+        return depth;
+    }
+
+    private static boolean isWithin(ProgressTracker tracker, ProgressTracker ancestor) {
+        for (ProgressTracker t = tracker; t != null; t = t.getParent()) {
+            if (t == ancestor) return true;
+        }
+        return false;
+    }
+}
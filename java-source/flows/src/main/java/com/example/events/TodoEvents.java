@@ -0,0 +1,100 @@
+package com.example.events;
+
+import net.corda.core.contracts.ContractState;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.node.services.Vault;
+
+import java.util.function.Supplier;
+
+/**
+ * Custom Java Flight Recorder events for the todo CorDapp, so that a recording taken when latency spikes shows where
+ * the time went rather than leaving a profiler to guess: [httpRequest] for each request the web API handles,
+ * [rpcCall] for each call the web server makes to the node, [vaultQuery] for each vault read with how many states it
+ * returned, and [recordSteps] for each step of a flow's progress tracker.
+ *
+ * An event costs a check and nothing more unless a recording has enabled it, and a recording drops those shorter than
+ * the threshold it sets; the thresholds in config/jfr/todo-events.jfc keep a continuous recording cheap enough to
+ * leave running in production. The events use the jdk.jfr API of JDK 11, also in JDK 8 from update 262. On a JVM
+ * without it every method here does nothing.
+ */
+public final class TodoEvents {
+    /** Whether this JVM has the Flight Recorder event API. */
+    public static final boolean AVAILABLE = isAvailable();
+
+    /** An HTTP request being handled; see [httpRequest]. */
+    public interface HttpRequest {
+        HttpRequest NONE = status -> {};
+
+        void end(int status);
+    }
+
+    /** An RPC call in flight; see [rpcCall]. */
+    public interface RpcCall {
+        RpcCall NONE = failed -> {};
+
+        void end(boolean failed);
+    }
+
+    /** A vault read in progress; see [vaultQuery]. */
+    public interface VaultQuery {
+        VaultQuery NONE = (states, totalStatesAvailable) -> {};
+
+        /** @param totalStatesAvailable as reported by the vault's page, or -1 if not known. */
+        void end(int states, long totalStatesAvailable);
+    }
+
+    private TodoEvents() {}
+
+    /** Begins timing an HTTP request; end it with the response status. */
+    public static HttpRequest httpRequest(String method, String path) {
+        return AVAILABLE ? JfrEvents.httpRequest(method, path) : HttpRequest.NONE;
+    }
+
+    /**
+     * Begins timing a call to [method] of the node's RPC interface over pooled [connection], or -1 for the web
+     * server's own connection.
+     */
+    public static RpcCall rpcCall(String method, int connection) {
+        return AVAILABLE ? JfrEvents.rpcCall(method, connection) : RpcCall.NONE;
+    }
+
+    /** Begins timing a vault read of [stateType], made by [source]: a flow, or the web server over RPC. */
+    public static VaultQuery vaultQuery(String source, Class<?> stateType) {
+        return AVAILABLE ? JfrEvents.vaultQuery(source, stateType) : VaultQuery.NONE;
+    }
+
+    /**
+     * Runs [query], a vault read of [stateType] by [source], as a [vaultQuery]. Flows read through this rather than
+     * holding the event themselves, which would put it in their checkpoint at the next suspension.
+     */
+    public static <T extends ContractState> Vault.Page<T> vaultQuery(String source, Class<T> stateType,
+                                                                     Supplier<Vault.Page<T>> query)
+    {
+        final VaultQuery event = vaultQuery(source, stateType);
+        final Vault.Page<T> page = query.get();
+        event.end(page.getStates().size(), page.getTotalStatesAvailable());
+        return page;
+    }
+
+    /**
+     * Records each step of [flow]'s progress tracker, and those of the subflows whose trackers become its children,
+     * as an event lasting from the step being entered until the next step of the same tracker or one above it.
+     *
+     * Call it first thing in [FlowLogic.call]. It does nothing for a subflow, whose steps are recorded with its
+     * parent's, nor if no recording is taking flow step events when the flow starts. Subscriptions to a tracker are
+     * not checkpointed, so a flow restored from a checkpoint records no further steps.
+     */
+    public static void recordSteps(FlowLogic<?> flow) {
+        if (AVAILABLE) JfrEvents.recordSteps(flow.getClass().getName(), flow.getRunId().getUuid().toString(),
+            flow.getProgressTracker());
+    }
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, TodoEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError ex) {
+            return false;
+        }
+    }
+}
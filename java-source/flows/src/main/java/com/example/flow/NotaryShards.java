@@ -0,0 +1,90 @@
+package com.example.flow;
+
+import net.corda.core.contracts.UniqueIdentifier;
+import net.corda.core.identity.Party;
+import net.corda.core.node.NodeInfo;
+import net.corda.core.node.ServiceHub;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Assigns each todo to one of the network's notaries using a consistent hash of its linearId.
+ *
+ * Every notary is placed on a hash ring at [VIRTUAL_NODES] points and a todo belongs to the first notary clockwise
+ * from the hash of its linearId. Spreading todos this way lets notarisation scale with the number of notaries, and
+ * when a notary is added only roughly 1/N of the todos change shard, which keeps rebalancing cheap.
+ */
+public final class NotaryShards {
+    static final int VIRTUAL_NODES = 64;
+    static final int MAX_ID_ATTEMPTS = 10000;
+
+    private NotaryShards() {}
+
+    /** The notary that the todo with [linearId] belongs to, given the notaries currently on the network. */
+    public static Party select(ServiceHub serviceHub, UniqueIdentifier linearId) {
+        final List<Party> notaries = serviceHub.getNetworkMapCache().getNotaryNodes().stream()
+            .map(NodeInfo::getNotaryIdentity)
+            .collect(toList());
+        return select(notaries, notary -> notary.getName().toString(), linearId.getId().toString());
+    }
+
+    /**
+     * A new linearId on [notary]'s shard, so that several todos created by one transaction, which can only have one
+     * notary, each still belong to the notary they are on. Ids are drawn until one lands on the shard, which with N
+     * notaries takes N attempts on average.
+     */
+    public static UniqueIdentifier newLinearIdOn(ServiceHub serviceHub, Party notary) {
+        final List<Party> notaries = serviceHub.getNetworkMapCache().getNotaryNodes().stream()
+            .map(NodeInfo::getNotaryIdentity)
+            .collect(toList());
+        if (!notaries.contains(notary)) throw new IllegalArgumentException(notary + " is not a notary on the network.");
+        for (int attempt = 0; attempt < MAX_ID_ATTEMPTS; attempt++) {
+            final UniqueIdentifier linearId = new UniqueIdentifier();
+            if (select(notaries, party -> party.getName().toString(), linearId.getId().toString()).equals(notary)) {
+                return linearId;
+            }
+        }
+        throw new IllegalStateException("No linearId landed on the shard of " + notary + " in " + MAX_ID_ATTEMPTS + " attempts.");
+    }
+
+    /**
+     * The member of [members] that owns [key] on a ring built from each member's [name]. The result depends only on
+     * the set of names, not the order of [members].
+     */
+    public static <T> T select(List<T> members, Function<T, String> name, String key) {
+        if (members.isEmpty()) throw new IllegalStateException("There are no notaries on the network.");
+        if (members.size() == 1) return members.get(0);
+
+        final TreeMap<Long, T> ring = new TreeMap<>();
+        members.stream().sorted(Comparator.comparing(name)).forEach(member -> {
+            for (int i = 0; i < VIRTUAL_NODES; i++) {
+                ring.put(hash(name.apply(member) + "#" + i), member);
+            }
+        });
+        final Map.Entry<Long, T> owner = ring.ceilingEntry(hash(key));
+        return owner != null ? owner.getValue() : ring.firstEntry().getValue();
+    }
+
+    private static long hash(String value) {
+        final byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+        long hash = 0;
+        for (int i = 0; i < 8; i++) {
+            hash = (hash << 8) | (digest[i] & 0xff);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.flow;
+
+import co.paralleluniverse.fibers.Suspendable;
+import net.corda.core.crypto.DigitalSignature;
+import net.corda.core.flows.FlowException;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.utilities.ProgressTracker;
+import net.corda.flows.SignTransactionFlow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.PublicKey;
+import java.security.SignatureException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects the signatures a transaction is missing from every other signer at once, where [CollectSignaturesFlow]
+ * asks them one after another. The transaction is sent to all of them before any reply is awaited, so they check and
+ * sign it concurrently and the whole collection takes about as long as the slowest signer rather than the sum of them.
+ *
+ * Counterparties answer with a [Responder], over the sessions of the calling flow, which must be an initiating flow.
+ * A responder signs with [SignTransactionFlow], exactly as for [CollectSignaturesFlow], and then reports how long it
+ * took to check and sign, which is what [getSigningTimes] holds for it. Replies are taken in signer order, so the time
+ * at which a signature is taken says nothing about its signer when a slower one was ahead of it.
+ *
+ * Flows in this version of Corda cannot time out a receive, so a signer that never answers holds the flow, as it
+ * would with [CollectSignaturesFlow]. [getSigningTimes] and the log, at debug level one line per signer, show who had
+ * answered.
+ */
+public class ParallelCollectSignaturesFlow extends FlowLogic<SignedTransaction> {
+    static private final Logger logger = LoggerFactory.getLogger(ParallelCollectSignaturesFlow.class);
+
+    private final SignedTransaction partiallySignedTx;
+    private final Map<Party, Duration> signingTimes = new LinkedHashMap<>();
+
+    private final ProgressTracker progressTracker = new ProgressTracker(
+        SENDING_TRANSACTION,
+        COLLECTING_SIGNATURES,
+        VERIFYING_SIGNATURES
+    );
+
+    private static final ProgressTracker.Step SENDING_TRANSACTION = new ProgressTracker.Step("Sending the transaction to every signer.");
+    private static final ProgressTracker.Step COLLECTING_SIGNATURES = new ProgressTracker.Step("Collecting signatures.");
+    private static final ProgressTracker.Step VERIFYING_SIGNATURES = new ProgressTracker.Step("Verifying collected signatures.");
+
+    public ParallelCollectSignaturesFlow(SignedTransaction partiallySignedTx) {
+        this.partiallySignedTx = partiallySignedTx;
+    }
+
+    @Override
+    public ProgressTracker getProgressTracker() {
+        return progressTracker;
+    }
+
+    /** How long each signer took to check and sign the transaction, as reported by its [Responder], in signer order. */
+    public Map<Party, Duration> getSigningTimes() {
+        return Collections.unmodifiableMap(signingTimes);
+    }
+
+    @Suspendable
+    @Override
+    public SignedTransaction call() throws FlowException {
+        final PublicKey myKey = getServiceHub().getLegalIdentityKey();
+        final Set<PublicKey> signed = new LinkedHashSet<>();
+        for (DigitalSignature.WithKey sig : partiallySignedTx.getSigs()) signed.add(sig.getBy());
+        if (!signed.contains(myKey)) throw new FlowException("The transaction must be signed by us before collecting signatures.");
+
+        final Party notary = partiallySignedTx.getTx().getNotary();
+        final Map<Party, PublicKey> signers = new LinkedHashMap<>();
+        for (PublicKey key : partiallySignedTx.getTx().getMustSign()) {
+            // The notary signs last, at finality.
+            if (signed.contains(key) || key.equals(myKey) || (notary != null && key.equals(notary.getOwningKey()))) continue;
+            final Party party = getServiceHub().getIdentityService().partyFromKey(key);
+            if (party == null) throw new FlowException("Cannot find the party that owns signing key " + key);
+            if (signers.put(party, key) != null) throw new FlowException(party + " must sign with more than one key.");
+        }
+        if (signers.isEmpty()) return partiallySignedTx;
+
+        progressTracker.setCurrentStep(SENDING_TRANSACTION);
+        final Instant sent = getServiceHub().getClock().instant();
+        for (Party signer : signers.keySet()) {
+            send(signer, partiallySignedTx);
+        }
+
+        progressTracker.setCurrentStep(COLLECTING_SIGNATURES);
+        final List<DigitalSignature.WithKey> sigs = new ArrayList<>(signers.size());
+        for (Map.Entry<Party, PublicKey> signer : signers.entrySet()) {
+            sigs.add(receive(DigitalSignature.WithKey.class, signer.getKey()).unwrap(sig -> {
+                if (!sig.getBy().equals(signer.getValue())) {
+                    throw new IllegalArgumentException(signer.getKey() + " signed with the wrong key.");
+                }
+                return sig;
+            }));
+            final Duration took = receive(Long.class, signer.getKey()).unwrap(nanos -> {
+                if (nanos < 0) throw new IllegalArgumentException(signer.getKey() + " reported a negative signing time.");
+                return Duration.ofNanos(nanos);
+            });
+            signingTimes.put(signer.getKey(), took);
+            logger.debug("{} signed {} in {} ms", signer.getKey().getName(), partiallySignedTx.getId(), took.toMillis());
+        }
+        final Duration elapsed = Duration.between(sent, getServiceHub().getClock().instant());
+
+        progressTracker.setCurrentStep(VERIFYING_SIGNATURES);
+        final SignedTransaction fullySignedTx = partiallySignedTx.withAdditionalSignatures(sigs);
+        try {
+            fullySignedTx.verifySignatures(notary == null ? new PublicKey[0] : new PublicKey[] { notary.getOwningKey() });
+        } catch (SignatureException ex) {
+            throw new FlowException("A collected signature does not verify: " + ex.getMessage(), ex);
+        }
+
+        final Map.Entry<Party, Duration> slowest = Collections.max(signingTimes.entrySet(), Map.Entry.comparingByValue());
+        logger.info("Collected {} signatures for {} in {} ms, the slowest from {} in {} ms", sigs.size(),
+            fullySignedTx.getId(), elapsed.toMillis(), slowest.getKey().getName(), slowest.getValue().toMillis());
+        return fullySignedTx;
+    }
+
+    /**
+     * The counterparty side of [ParallelCollectSignaturesFlow]: checks and signs the transaction with the
+     * [SignTransactionFlow] from [signTransactionFlow], then reports to the collector how long that took.
+     */
+    public static abstract class Responder extends FlowLogic<SignedTransaction> {
+        private final Party otherParty;
+
+        protected Responder(Party otherParty) {
+            this.otherParty = otherParty;
+        }
+
+        protected Party getOtherParty() {
+            return otherParty;
+        }
+
+        /** The flow that checks the transaction and signs it, answering [otherParty]. */
+        protected abstract SignTransactionFlow signTransactionFlow() throws FlowException;
+
+        @Suspendable
+        @Override
+        public SignedTransaction call() throws FlowException {
+            final Instant started = getServiceHub().getClock().instant();
+            final SignedTransaction stx = subFlow(signTransactionFlow());
+            send(otherParty, Duration.between(started, getServiceHub().getClock().instant()).toNanos());
+            return stx;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.flow;
+
+import net.corda.core.flows.FlowException;
+import net.corda.core.node.ServiceHub;
+import net.corda.core.transactions.LedgerTransaction;
+import net.corda.core.transactions.TransactionBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Verifies a batch of independent transactions on a bounded pool, for flows that build many transactions before
+ * signing them.
+ *
+ * Resolving a transaction reads attachments and input states through the flow's database transaction, which only
+ * exists on the flow's own thread, so each builder is resolved there, in order. Only contract verification, which
+ * needs nothing but the resolved transaction, is spread across the pool. [verify] waits for the pool without
+ * suspending the flow, so nothing it holds is ever checkpointed and it can be called from @Suspendable code; the
+ * flow's thread is busy for the same time it would spend verifying one transaction at a time.
+ */
+public class ParallelVerifier {
+    /** Shared by every flow on the node, so that concurrent batches together never use more than one thread per core. */
+    public static final ParallelVerifier SHARED = new ParallelVerifier(Runtime.getRuntime().availableProcessors());
+
+    private final int parallelism;
+    private final ExecutorService pool;
+
+    public ParallelVerifier(int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be at least 1");
+        this.parallelism = parallelism;
+        final AtomicInteger threads = new AtomicInteger();
+        final ThreadFactory factory = runnable -> {
+            final Thread thread = new Thread(runnable, "todo-verifier-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.pool = Executors.newFixedThreadPool(parallelism, factory);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /** Resolves every builder against [services], then verifies them all. See [verifyAll]. */
+    public void verify(ServiceHub services, List<TransactionBuilder> builders) throws FlowException {
+        final List<LedgerTransaction> transactions = new ArrayList<>(builders.size());
+        for (TransactionBuilder builder : builders) {
+            transactions.add(builder.toWireTransaction().toLedgerTransaction(services));
+        }
+        verifyAll(transactions);
+    }
+
+    /**
+     * Verifies [transactions], which must not depend on each other, in up to [parallelism] contiguous slices. If any
+     * fail, the failure of the earliest one in the list is thrown, so the outcome does not depend on scheduling.
+     */
+    public void verifyAll(List<LedgerTransaction> transactions) throws FlowException {
+        if (transactions.isEmpty()) return;
+        final int slices = Math.min(parallelism, transactions.size());
+        final int sliceSize = (transactions.size() + slices - 1) / slices;
+
+        final List<Future<?>> results = new ArrayList<>(slices);
+        for (int from = 0; from < transactions.size(); from += sliceSize) {
+            final List<LedgerTransaction> slice = transactions.subList(from, Math.min(from + sliceSize, transactions.size()));
+            results.add(pool.submit(() -> {
+                for (LedgerTransaction transaction : slice) {
+                    transaction.verify();
+                }
+                return null;
+            }));
+        }
+
+        boolean interrupted = false;
+        Throwable failure = null;
+        for (Future<?> result : results) {
+            while (true) {
+                try {
+                    result.get();
+                    break;
+                } catch (InterruptedException ex) {
+                    // Every slice is waited for, so that none is still verifying after this returns.
+                    interrupted = true;
+                } catch (ExecutionException ex) {
+                    if (failure == null) failure = ex.getCause();
+                    break;
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+
+        if (failure instanceof FlowException) throw (FlowException) failure;
+        if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+        if (failure instanceof Error) throw (Error) failure;
+        if (failure != null) throw new FlowException("Transaction verification failed.", failure);
+    }
+}
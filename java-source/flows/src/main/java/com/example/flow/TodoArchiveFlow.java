@@ -0,0 +1,153 @@
+package com.example.flow;
+
+import co.paralleluniverse.fibers.Suspendable;
+import com.example.contract.TodoContract;
+import com.example.events.TodoEvents;
+import com.example.query.TodoQuery;
+import com.example.state.TodoState;
+import net.corda.core.contracts.Command;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.StateRef;
+import net.corda.core.contracts.TransactionType;
+import net.corda.core.flows.FlowException;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.flows.SchedulableFlow;
+import net.corda.core.flows.StartableByRPC;
+import net.corda.core.identity.Party;
+import net.corda.core.node.services.StatesNotAvailableException;
+import net.corda.core.node.services.vault.PageSpecification;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.transactions.TransactionBuilder;
+import net.corda.core.utilities.NonEmptySet;
+import net.corda.core.utilities.ProgressTracker;
+import net.corda.flows.FinalityFlow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static net.corda.core.node.services.vault.QueryCriteriaUtilsKt.DEFAULT_PAGE_NUM;
+
+/**
+ * Archives this node's completed todos: consumes them with Archive transactions that have no outputs, so that they
+ * no longer weigh on every query over unconsumed todos. They remain readable as consumed states; see
+ * [TodoQuery.archived].
+ *
+ * The scheduler starts one of these per completed todo, [TodoState.ARCHIVE_AFTER] after completion, on the owner's
+ * and the assignee's node alike. As with [TodoReminderFlow] they are coalesced: the first to run on the owner's node
+ * archives everything of its owner's that is due, and the rest find nothing left to do. It can also be started over
+ * RPC with a shorter or longer threshold.
+ *
+ * Todos are taken [MAX_BATCH] at a time from the index on owner and completion time and soft-locked, and each batch
+ * is archived in one transaction per notary. [FinalityFlow] records each with the assignees as well, since they are
+ * participants of the inputs. Todos completed before completion times were recorded are never archived.
+ */
+@SchedulableFlow
+@StartableByRPC
+public class TodoArchiveFlow extends FlowLogic<Integer> {
+    public static final int MAX_BATCH = 200;
+
+    static private final Logger logger = LoggerFactory.getLogger(TodoArchiveFlow.class);
+
+    private final StateRef trigger;
+    private final Duration olderThan;
+
+    private final ProgressTracker progressTracker = new ProgressTracker(
+        COLLECTING_TODOS,
+        ARCHIVING_TODOS
+    );
+
+    private static final ProgressTracker.Step COLLECTING_TODOS = new ProgressTracker.Step("Collecting completed todos to archive.");
+    private static final ProgressTracker.Step ARCHIVING_TODOS = new ProgressTracker.Step("Recording the archive transactions.");
+
+    /** Started by the scheduler for [trigger]; archives todos completed at least [TodoState.ARCHIVE_AFTER] ago. */
+    public TodoArchiveFlow(StateRef trigger) {
+        this.trigger = trigger;
+        this.olderThan = TodoState.ARCHIVE_AFTER;
+    }
+
+    /** Archives every todo of this node's completed at least [olderThan] ago. */
+    public TodoArchiveFlow(Duration olderThan) {
+        if (olderThan.isNegative()) throw new IllegalArgumentException("olderThan must not be negative.");
+        this.trigger = null;
+        this.olderThan = olderThan;
+    }
+
+    @Override
+    public ProgressTracker getProgressTracker() {
+        return progressTracker;
+    }
+
+    /**
+     * Returns the number of todos archived.
+     */
+    @Suspendable
+    @Override
+    public Integer call() throws FlowException {
+        TodoEvents.recordSteps(this);
+        final Party me = getServiceHub().getMyInfo().getLegalIdentity();
+        if (trigger != null) {
+            final TodoState triggerState = (TodoState) getServiceHub().toStateAndRef(trigger).getState().getData();
+            if (!triggerState.getOwner().equals(me)) return 0;
+        }
+
+        final Instant completedBefore = getServiceHub().getClock().instant().minus(olderThan);
+        int archived = 0;
+        int transactions = 0;
+        while (true) {
+            progressTracker.setCurrentStep(COLLECTING_TODOS);
+            final Map<Party, List<StateAndRef<TodoState>>> byNotary = collect(me, completedBefore);
+            // Stop once nothing could be taken: everything due is archived, or held by another archive flow.
+            if (byNotary.isEmpty()) break;
+
+            progressTracker.setCurrentStep(ARCHIVING_TODOS);
+            for (Map.Entry<Party, List<StateAndRef<TodoState>>> batch : byNotary.entrySet()) {
+                final TransactionBuilder txBuilder = new TransactionType.General.Builder(batch.getKey());
+                for (StateAndRef<TodoState> todo : batch.getValue()) {
+                    txBuilder.addInputState(todo);
+                }
+                txBuilder.addCommand(new Command(new TodoContract.Commands.Archive(), me.getOwningKey()));
+
+                txBuilder.toWireTransaction().toLedgerTransaction(getServiceHub()).verify();
+                final SignedTransaction stx = getServiceHub().signInitialTransaction(txBuilder);
+                subFlow(new FinalityFlow(stx));
+                archived += batch.getValue().size();
+                transactions++;
+            }
+        }
+        if (archived > 0) {
+            logger.info("Archived {} todos completed before {} in {} transactions", archived, completedBefore, transactions);
+        }
+        return archived;
+    }
+
+    /** The next batch of archivable todos that this flow could soft-lock, by notary. */
+    private Map<Party, List<StateAndRef<TodoState>>> collect(Party me, Instant completedBefore) {
+        final List<StateAndRef<TodoState>> candidates = TodoEvents.vaultQuery(getClass().getName(), TodoState.class,
+            () -> getServiceHub().getVaultQueryService().queryBy(TodoState.class,
+                TodoQuery.archivable(me.getName(), completedBefore), new PageSpecification(DEFAULT_PAGE_NUM, MAX_BATCH),
+                TodoQuery.ARCHIVE_ORDER)).getStates();
+
+        final Map<Party, List<StateAndRef<TodoState>>> byNotary = new LinkedHashMap<>();
+        for (StateAndRef<TodoState> todo : candidates) {
+            if (!reserve(todo)) continue;
+            byNotary.computeIfAbsent(todo.getState().getNotary(), notary -> new ArrayList<>()).add(todo);
+        }
+        return byNotary;
+    }
+
+    /** Soft-locks [todo] for this flow; false if another flow already has. */
+    private boolean reserve(StateAndRef<TodoState> todo) {
+        try {
+            getServiceHub().getVaultService().softLockReserve(getRunId().getUuid(), new NonEmptySet<>(todo.getRef()));
+            return true;
+        } catch (StatesNotAvailableException ex) {
+            return false;
+        }
+    }
+}
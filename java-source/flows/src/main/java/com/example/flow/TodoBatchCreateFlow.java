@@ -0,0 +1,160 @@
+package com.example.flow;
+
+import co.paralleluniverse.fibers.Suspendable;
+import com.example.contract.TodoContract;
+import com.example.events.TodoEvents;
+import com.example.model.TodoItem;
+import com.example.state.TodoState;
+import net.corda.core.contracts.Command;
+import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.TransactionType;
+import net.corda.core.flows.*;
+import net.corda.core.identity.AbstractParty;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.transactions.TransactionBuilder;
+import net.corda.core.utilities.ProgressTracker;
+import net.corda.flows.CollectSignaturesFlow;
+import net.corda.flows.FinalityFlow;
+import net.corda.flows.SignTransactionFlow;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static java.util.Collections.emptySet;
+import static net.corda.core.contracts.ContractsDSL.requireThat;
+
+/**
+ * Creates up to [MAX_BATCH_SIZE] todos for one assignee in a single flow, one transaction per todo so that each keeps
+ * its own notary shard and can be completed independently.
+ *
+ * The transactions are verified together by [ParallelVerifier] before any is signed, so a batch with an invalid todo
+ * is rejected before anything is sent. The assignee is told how many transactions to expect and signs each in turn,
+ * and the batch is then notarised and recorded with a single [FinalityFlow]. If the assignee refuses to sign any of
+ * them, none is committed.
+ *
+ * Finality is not all-or-nothing, though: the transactions are notarised and recorded one after another, so if one
+ * fails there, for instance because its notary is unreachable, those finalised before it stay committed while the
+ * flow fails. Which todos were created must then be read back from the vault.
+ */
+public class TodoBatchCreateFlow {
+    public static final int MAX_BATCH_SIZE = 100;
+
+    @InitiatingFlow
+    @StartableByRPC
+    public static class Initiator extends FlowLogic<List<SignedTransaction>> {
+        private final List<TodoItem> todos;
+        private final Party assignee;
+
+        private final ProgressTracker progressTracker = new ProgressTracker(
+            GENERATING_TRANSACTIONS,
+            VERIFYING_TRANSACTIONS,
+            SIGNING_TRANSACTIONS,
+            GATHERING_SIGS,
+            FINALISING_TRANSACTIONS
+        );
+
+        private static final ProgressTracker.Step GENERATING_TRANSACTIONS = new ProgressTracker.Step("Generating a transaction for each todo.");
+        private static final ProgressTracker.Step VERIFYING_TRANSACTIONS = new ProgressTracker.Step("Verifying contract constraints in parallel.");
+        private static final ProgressTracker.Step SIGNING_TRANSACTIONS = new ProgressTracker.Step("Signing the transactions with our private key.");
+        private static final ProgressTracker.Step GATHERING_SIGS = new ProgressTracker.Step("Gathering the assignee's signatures.");
+        private static final ProgressTracker.Step FINALISING_TRANSACTIONS = new ProgressTracker.Step("Obtaining notary signatures and recording the transactions.") {
+            @Override public ProgressTracker childProgressTracker() {
+                return FinalityFlow.Companion.tracker();
+            }
+        };
+
+        /** @throws IllegalArgumentException if there are more than [MAX_BATCH_SIZE] todos. */
+        public Initiator(List<TodoItem> todos, Party assignee) {
+            if (todos.size() > MAX_BATCH_SIZE) {
+                throw new IllegalArgumentException("A batch can create at most " + MAX_BATCH_SIZE + " todos.");
+            }
+            this.todos = todos;
+            this.assignee = assignee;
+        }
+
+        @Override
+        public ProgressTracker getProgressTracker() {
+            return progressTracker;
+        }
+
+        @Suspendable
+        @Override
+        public List<SignedTransaction> call() throws FlowException {
+            TodoEvents.recordSteps(this);
+            progressTracker.setCurrentStep(GENERATING_TRANSACTIONS);
+            final Party me = getServiceHub().getMyInfo().getLegalIdentity();
+            final Instant created = getServiceHub().getClock().instant();
+            final List<TransactionBuilder> builders = new ArrayList<>(todos.size());
+            for (TodoItem todo : todos) {
+                final TodoState todoState = new TodoState(new TodoItem(todo.getTitle(), todo.getDescription(), false, created, todo.getDueDate(), 0), me, assignee);
+                final Party notary = NotaryShards.select(getServiceHub(), todoState.getLinearId());
+                final Command txCommand = new Command(new TodoContract.Commands.Create(),
+                    todoState.getParticipants().stream().map(AbstractParty::getOwningKey).collect(Collectors.toList()));
+                builders.add(new TransactionType.General.Builder(notary).withItems(todoState, txCommand));
+            }
+
+            progressTracker.setCurrentStep(VERIFYING_TRANSACTIONS);
+            ParallelVerifier.SHARED.verify(getServiceHub(), builders);
+
+            progressTracker.setCurrentStep(SIGNING_TRANSACTIONS);
+            final List<SignedTransaction> partSignedTxs = new ArrayList<>(builders.size());
+            for (TransactionBuilder builder : builders) {
+                partSignedTxs.add(getServiceHub().signInitialTransaction(builder));
+            }
+
+            progressTracker.setCurrentStep(GATHERING_SIGS);
+            send(assignee, partSignedTxs.size());
+            final List<SignedTransaction> fullySignedTxs = new ArrayList<>(partSignedTxs.size());
+            for (SignedTransaction partSignedTx : partSignedTxs) {
+                fullySignedTxs.add(subFlow(new CollectSignaturesFlow(partSignedTx, CollectSignaturesFlow.Companion.tracker())));
+            }
+
+            progressTracker.setCurrentStep(FINALISING_TRANSACTIONS);
+            return subFlow(new FinalityFlow(fullySignedTxs, emptySet(), FINALISING_TRANSACTIONS.childProgressTracker()));
+        }
+    }
+
+    @InitiatedBy(Initiator.class)
+    public static class Acceptor extends FlowLogic<Void> {
+        private final Party otherParty;
+
+        public Acceptor(Party otherParty) {
+            this.otherParty = otherParty;
+        }
+
+        @Suspendable
+        @Override
+        public Void call() throws FlowException {
+            class signTxFlow extends SignTransactionFlow {
+                private signTxFlow(Party otherParty, ProgressTracker progressTracker) {
+                    super(otherParty, progressTracker);
+                }
+
+                @Override
+                protected void checkTransaction(SignedTransaction stx) {
+                    requireThat(require -> {
+                        ContractState output = stx.getTx().getOutputs().get(0).getData();
+                        require.using("This must be an todo transaction.", output instanceof TodoState);
+                        return null;
+                    });
+                }
+            }
+
+            final int count = receive(Integer.class, otherParty).unwrap(n -> {
+                if (n < 0) throw new IllegalArgumentException("Negative batch size " + n);
+                return n;
+            });
+            // Each transaction to sign keeps this flow open, so an initiator may not ask for more than it could send.
+            if (count > MAX_BATCH_SIZE) {
+                throw new FlowException("A batch of " + count + " todos is more than the " + MAX_BATCH_SIZE + " allowed.");
+            }
+            for (int i = 0; i < count; i++) {
+                subFlow(new signTxFlow(otherParty, SignTransactionFlow.Companion.tracker()));
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.flow;
+
+import co.paralleluniverse.fibers.Suspendable;
+import com.example.contract.TodoContract;
+import com.example.events.TodoEvents;
+import com.example.model.TodoItem;
+import com.example.state.TodoState;
+import net.corda.core.contracts.Command;
+import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.TransactionState;
+import net.corda.core.contracts.TransactionType;
+import net.corda.core.flows.*;
+import net.corda.core.identity.AbstractParty;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.transactions.TransactionBuilder;
+import net.corda.core.utilities.ProgressTracker;
+import net.corda.flows.FinalityFlow;
+import net.corda.flows.SignTransactionFlow;
+
+import java.security.PublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static net.corda.core.contracts.ContractsDSL.requireThat;
+
+/**
+ * Assigns the same todo to several parties in a single transaction, with one [TodoState] per assignee so that each
+ * can complete their copy independently with [TodoCompleteFlow].
+ *
+ * The transaction is signed by the owner and every assignee, whose signatures are collected concurrently by
+ * [ParallelCollectSignaturesFlow], then notarised once and recorded everywhere by one [FinalityFlow], so a team of N
+ * costs one transaction rather than N. As the transaction can only have one notary, every todo in it is given a
+ * linearId on the shard of that notary; see [NotaryShards.newLinearIdOn]. Every assignee sees the whole transaction,
+ * and so who else the todo was assigned to.
+ */
+public class TodoBroadcastFlow {
+    public static final int MAX_ASSIGNEES = 100;
+
+    @InitiatingFlow
+    @StartableByRPC
+    public static class Initiator extends FlowLogic<SignedTransaction> {
+        private final String title;
+        private final String description;
+        private final List<Party> assignees;
+        private final Instant dueDate;
+        private ParallelCollectSignaturesFlow signatures;
+
+        private final ProgressTracker progressTracker = new ProgressTracker(
+            GENERATING_TRANSACTION,
+            VERIFYING_TRANSACTION,
+            SIGNING_TRANSACTION,
+            GATHERING_SIGS,
+            FINALISING_TRANSACTION
+        );
+
+        private static final ProgressTracker.Step GENERATING_TRANSACTION = new ProgressTracker.Step("Generating a transaction with a todo for each assignee.");
+        private static final ProgressTracker.Step VERIFYING_TRANSACTION = new ProgressTracker.Step("Verifying contract constraints.");
+        private static final ProgressTracker.Step SIGNING_TRANSACTION = new ProgressTracker.Step("Signing transaction with our private key.");
+        private static final ProgressTracker.Step GATHERING_SIGS = new ProgressTracker.Step("Gathering the assignees' signatures.");
+        private static final ProgressTracker.Step FINALISING_TRANSACTION = new ProgressTracker.Step("Obtaining notary signature and recording transaction.") {
+            @Override public ProgressTracker childProgressTracker() {
+                return FinalityFlow.Companion.tracker();
+            }
+        };
+
+        /**
+         * @param dueDate as for [TodoCreateFlow]; may be null.
+         * @throws IllegalArgumentException if there are no assignees, more than [MAX_ASSIGNEES], or any twice.
+         */
+        public Initiator(String title, String description, List<Party> assignees, Instant dueDate) {
+            if (assignees.isEmpty()) throw new IllegalArgumentException("A todo needs at least one assignee.");
+            if (assignees.size() > MAX_ASSIGNEES) {
+                throw new IllegalArgumentException("A todo can be assigned to at most " + MAX_ASSIGNEES + " parties at once.");
+            }
+            if (new HashSet<>(assignees).size() != assignees.size()) {
+                throw new IllegalArgumentException("Each assignee may only be given the todo once.");
+            }
+            this.title = title;
+            this.description = description;
+            this.assignees = assignees;
+            this.dueDate = dueDate;
+        }
+
+        @Override
+        public ProgressTracker getProgressTracker() {
+            return progressTracker;
+        }
+
+        /** How long each assignee took to sign, in assignee order; empty until their signatures have been gathered. */
+        public Map<Party, Duration> getSigningTimes() {
+            return signatures == null ? Collections.emptyMap() : signatures.getSigningTimes();
+        }
+
+        @Suspendable
+        @Override
+        public SignedTransaction call() throws FlowException {
+            TodoEvents.recordSteps(this);
+            progressTracker.setCurrentStep(GENERATING_TRANSACTION);
+            final Party me = getServiceHub().getMyInfo().getLegalIdentity();
+            final TodoItem todo = new TodoItem(title, description, false, getServiceHub().getClock().instant(), dueDate, 0);
+
+            // The first todo picks the notary as any other would; the rest are given ids on the same shard.
+            final TodoState first = new TodoState(todo, me, assignees.get(0));
+            final Party notary = NotaryShards.select(getServiceHub(), first.getLinearId());
+            final TransactionBuilder txBuilder = new TransactionType.General.Builder(notary);
+            final Set<PublicKey> signers = new LinkedHashSet<>();
+            for (int i = 0; i < assignees.size(); i++) {
+                final TodoState todoState = i == 0
+                    ? first
+                    : new TodoState(todo, me, assignees.get(i), NotaryShards.newLinearIdOn(getServiceHub(), notary));
+                txBuilder.addOutputState(todoState);
+                todoState.getParticipants().stream().map(AbstractParty::getOwningKey).forEach(signers::add);
+            }
+            txBuilder.addCommand(new Command(new TodoContract.Commands.Create(), new ArrayList<>(signers)));
+
+            progressTracker.setCurrentStep(VERIFYING_TRANSACTION);
+            txBuilder.toWireTransaction().toLedgerTransaction(getServiceHub()).verify();
+
+            progressTracker.setCurrentStep(SIGNING_TRANSACTION);
+            final SignedTransaction partSignedTx = getServiceHub().signInitialTransaction(txBuilder);
+
+            progressTracker.setCurrentStep(GATHERING_SIGS);
+            // Asks every assignee at once, over the sessions this flow initiates with them, so that a large team
+            // takes as long as its slowest member rather than the sum of them.
+            signatures = new ParallelCollectSignaturesFlow(partSignedTx);
+            final SignedTransaction fullySignedTx = subFlow(signatures);
+
+            progressTracker.setCurrentStep(FINALISING_TRANSACTION);
+            return subFlow(new FinalityFlow(fullySignedTx)).get(0);
+        }
+    }
+
+    @InitiatedBy(Initiator.class)
+    public static class Acceptor extends ParallelCollectSignaturesFlow.Responder {
+        public Acceptor(Party otherParty) {
+            super(otherParty);
+        }
+
+        @Override
+        protected SignTransactionFlow signTransactionFlow() {
+            final Party me = getServiceHub().getMyInfo().getLegalIdentity();
+
+            class signTxFlow extends SignTransactionFlow {
+                private signTxFlow(Party otherParty, ProgressTracker progressTracker) {
+                    super(otherParty, progressTracker);
+                }
+
+                @Override
+                protected void checkTransaction(SignedTransaction stx) {
+                    requireThat(require -> {
+                        int mine = 0;
+                        for (TransactionState<ContractState> output : stx.getTx().getOutputs()) {
+                            require.using("This must be a todo transaction.", output.getData() instanceof TodoState);
+                            if (((TodoState) output.getData()).getAssignee().equals(me)) mine++;
+                        }
+                        require.using("Exactly one of the todos must be assigned to us.", mine == 1);
+                        return null;
+                    });
+                }
+            }
+
+            return new signTxFlow(getOtherParty(), SignTransactionFlow.Companion.tracker());
+        }
+    }
+}
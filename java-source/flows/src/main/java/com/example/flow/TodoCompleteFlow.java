@@ -3,6 +3,7 @@ package com.example.flow;
 import co.paralleluniverse.fibers.Suspendable;
 import com.example.contract.IOUContract;
 import com.example.contract.TodoContract;
+import com.example.events.TodoEvents;
 import com.example.model.TodoItem;
 import com.example.state.TodoState;
 import com.google.common.collect.ImmutableList;
@@ -11,11 +12,13 @@ import net.corda.core.contracts.*;
 import net.corda.core.flows.*;
 import net.corda.core.identity.AbstractParty;
 import net.corda.core.identity.Party;
+import net.corda.core.node.services.StatesNotAvailableException;
 import net.corda.core.node.services.Vault;
 import net.corda.core.node.services.VaultQueryService;
 import net.corda.core.node.services.vault.QueryCriteria;
 import net.corda.core.transactions.SignedTransaction;
 import net.corda.core.transactions.TransactionBuilder;
+import net.corda.core.utilities.NonEmptySet;
 import net.corda.core.utilities.ProgressTracker;
 import net.corda.flows.CollectSignaturesFlow;
 import net.corda.flows.FinalityFlow;
@@ -77,21 +80,30 @@ public class TodoCompleteFlow {
         @Override
         public SignedTransaction call() throws FlowException
         {
-            // Obtain a reference to the notary we want to use.
-            final Party notary = getServiceHub().getNetworkMapCache().getNotaryNodes().get(0).getNotaryIdentity();
-
+            TodoEvents.recordSteps(this);
             // Stage 1.
             VaultQueryService vaultQuerySvc = getServiceHub().getVaultQueryService();
             QueryCriteria.LinearStateQueryCriteria criteria = new QueryCriteria.LinearStateQueryCriteria(null,Arrays.asList(linearId));
-            Vault.Page<TodoState> results = vaultQuerySvc.queryBy(TodoState.class, criteria);
+            Vault.Page<TodoState> results = TodoEvents.vaultQuery(getClass().getName(), TodoState.class,
+                () -> vaultQuerySvc.queryBy(TodoState.class, criteria));
+            if (results.getStates().isEmpty()) {
+                throw new FlowException("Todo " + linearId + " does not exist or has already been completed.");
+            }
             StateAndRef<TodoState> inputState = results.getStates().get(0);
+            if (inputState.getState().getData().getTodoItem().isComplete()) {
+                throw new FlowException("Todo " + linearId + " is already complete.");
+            }
+            reserve(inputState);
+
+            // The input can only be notarised by the notary it is already assigned to.
+            final Party notary = inputState.getState().getNotary();
             progressTracker.setCurrentStep(GENERATING_TRANSACTION);
             // Generate an unsigned transaction.
 
             TodoState oldState = inputState.component1().component1();
             TodoItem oldStateItem = oldState.getTodoItem();
-            TodoItem newItem = new TodoItem(oldStateItem.getTitle(),oldStateItem.getDescription(),true);
-            TodoState newState = new TodoState(newItem,oldState.getOwner(),oldState.getAssignee());
+            TodoItem newItem = oldStateItem.completed(getServiceHub().getClock().instant());
+            TodoState newState = new TodoState(newItem,oldState.getOwner(),oldState.getAssignee(),oldState.getLinearId());
 
             final Command txCommand = new Command(new TodoContract.Commands.Complete(),
                 newState.getParticipants().stream().map(AbstractParty::getOwningKey).collect(Collectors.toList()));
@@ -118,6 +130,19 @@ public class TodoCompleteFlow {
             // Notarise and record the transaction in both parties' vaults.
             return subFlow(new FinalityFlow(fullySignedTx)).get(0);
         }
+
+        /**
+         * Soft-locks the input for the life of this flow, so that a second completion of the same todo on this node
+         * fails here, before any signing or messaging, rather than at the notary after a full round trip.
+         */
+        private void reserve(StateAndRef<TodoState> inputState) throws StatesNotAvailableException {
+            try {
+                getServiceHub().getVaultService().softLockReserve(
+                    getRunId().getUuid(), new NonEmptySet<>(inputState.getRef()));
+            } catch (StatesNotAvailableException ex) {
+                throw new StatesNotAvailableException("Todo " + linearId + " is already being changed by another flow.", ex);
+            }
+        }
     }
 
     @InitiatedBy(Initiator.class)
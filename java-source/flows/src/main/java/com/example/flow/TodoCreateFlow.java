@@ -1,7 +1,8 @@
 package com.example.flow;
 
 import co.paralleluniverse.fibers.Suspendable;
-import com.example.contract.IOUContract;
+import com.example.contract.TodoContract;
+import com.example.events.TodoEvents;
 import com.example.model.IOU;
 import com.example.model.TodoItem;
 import com.example.state.IOUState;
@@ -20,6 +21,7 @@ import net.corda.flows.FinalityFlow;
 import net.corda.flows.SignTransactionFlow;
 import scala.util.parsing.combinator.testing.Str;
 
+import java.time.Instant;
 import java.util.stream.Collectors;
 
 import static net.corda.core.contracts.ContractsDSL.requireThat;
@@ -35,6 +37,7 @@ public class TodoCreateFlow {
         private final String title;
         private final String description;
         private final Party assignee;
+        private final Instant dueDate;
 
         // The progress tracker checkpoints each stage of the flow and outputs the specified messages when each
         // checkpoint is reached in the code. See the 'progressTracker.currentStep' expressions within the call()
@@ -62,9 +65,18 @@ public class TodoCreateFlow {
         };
 
         public Initiator(String title, String description, Party assignee) {
+            this(title, description, assignee, null);
+        }
+
+        /**
+         * @param dueDate when the todo should be complete by, after which the owner's node sends reminders; see
+         * [TodoState]. May be null.
+         */
+        public Initiator(String title, String description, Party assignee, Instant dueDate) {
             this.title=title;
             this.description=description;
             this.assignee=assignee;
+            this.dueDate=dueDate;
         }
 
         @Override
@@ -79,17 +91,18 @@ public class TodoCreateFlow {
         @Override
         public SignedTransaction call() throws FlowException
         {
-            // Obtain a reference to the notary we want to use.
-            final Party notary = getServiceHub().getNetworkMapCache().getNotaryNodes().get(0).getNotaryIdentity();
-
+            TodoEvents.recordSteps(this);
             // Stage 1.
             progressTracker.setCurrentStep(GENERATING_TRANSACTION);
             // Generate an unsigned transaction.
-            TodoItem todo = new TodoItem(title,description,false);
+            TodoItem todo = new TodoItem(title,description,false,getServiceHub().getClock().instant(),dueDate,0);
             Party me = getServiceHub().getMyInfo().getLegalIdentity();
             TodoState todoState = new TodoState(todo, me, assignee);
 
-            final Command txCommand = new Command(new IOUContract.Commands.Create(),
+            // The todo stays with the notary shard chosen here for its whole life; see NotaryShards.
+            final Party notary = NotaryShards.select(getServiceHub(), todoState.getLinearId());
+
+            final Command txCommand = new Command(new TodoContract.Commands.Create(),
                 todoState.getParticipants().stream().map(AbstractParty::getOwningKey).collect(Collectors.toList()));
             final TransactionBuilder txBuilder = new TransactionType.General.Builder(notary).withItems(todoState, txCommand);
 
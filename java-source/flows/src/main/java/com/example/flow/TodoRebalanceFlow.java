@@ -0,0 +1,108 @@
+package com.example.flow;
+
+import co.paralleluniverse.fibers.Suspendable;
+import com.example.events.TodoEvents;
+import com.example.query.TodoStatePager;
+import com.example.state.TodoState;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.flows.FlowException;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.flows.StartableByRPC;
+import net.corda.core.identity.Party;
+import net.corda.core.node.services.Vault;
+import net.corda.core.node.services.vault.PageSpecification;
+import net.corda.core.node.services.vault.QueryCriteria;
+import net.corda.core.utilities.ProgressTracker;
+import net.corda.flows.AbstractStateReplacementFlow;
+import net.corda.flows.NotaryChangeFlow;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static net.corda.core.node.services.vault.QueryCriteriaUtilsKt.DEFAULT_PAGE_NUM;
+
+/**
+ * Moves todos that are no longer on their [NotaryShards] shard, typically after a notary has joined the network,
+ * with notary-change transactions.
+ *
+ * Only cold todos, those not touched for at least [coldAfter], are moved, so that the notary change does not race
+ * with a completion in progress. Each node only moves the todos it owns, so the owner and the assignee never try to
+ * move the same todo at once. At most [maxMoves] todos are moved per run; run the flow again to continue.
+ */
+public class TodoRebalanceFlow {
+    @StartableByRPC
+    public static class Initiator extends FlowLogic<Integer> {
+        private static final int PAGE_SIZE = 200;
+
+        private final Duration coldAfter;
+        private final int maxMoves;
+
+        private final ProgressTracker progressTracker = new ProgressTracker(
+            FINDING_MISPLACED_TODOS,
+            CHANGING_NOTARIES
+        );
+
+        private static final ProgressTracker.Step FINDING_MISPLACED_TODOS = new ProgressTracker.Step("Finding cold todos on the wrong notary.");
+        private static final ProgressTracker.Step CHANGING_NOTARIES = new ProgressTracker.Step("Moving todos to their notary shard.");
+
+        public Initiator(Duration coldAfter, int maxMoves) {
+            this.coldAfter = coldAfter;
+            this.maxMoves = maxMoves;
+        }
+
+        @Override
+        public ProgressTracker getProgressTracker() {
+            return progressTracker;
+        }
+
+        /**
+         * Returns the number of todos moved.
+         */
+        @Suspendable
+        @Override
+        public Integer call() throws FlowException {
+            TodoEvents.recordSteps(this);
+            progressTracker.setCurrentStep(FINDING_MISPLACED_TODOS);
+            final List<StateAndRef<TodoState>> misplaced = findMisplaced();
+
+            progressTracker.setCurrentStep(CHANGING_NOTARIES);
+            int moved = 0;
+            for (StateAndRef<TodoState> todo : misplaced) {
+                final Party target = NotaryShards.select(getServiceHub(), todo.getState().getData().getLinearId());
+                subFlow(new NotaryChangeFlow<>(todo, target, AbstractStateReplacementFlow.Instigator.Companion.tracker()));
+                moved++;
+            }
+            return moved;
+        }
+
+        /** Collects up to [maxMoves] misplaced todos before changing any, so that paging is not disturbed. */
+        private List<StateAndRef<TodoState>> findMisplaced() {
+            final Party me = getServiceHub().getMyInfo().getLegalIdentity();
+            final Instant coldBefore = getServiceHub().getClock().instant().minus(coldAfter);
+            final QueryCriteria criteria = new QueryCriteria.VaultQueryCriteria(Vault.StateStatus.UNCONSUMED);
+            final List<StateAndRef<TodoState>> misplaced = new ArrayList<>();
+
+            for (int page = DEFAULT_PAGE_NUM; misplaced.size() < maxMoves; page++) {
+                final PageSpecification paging = new PageSpecification(page, PAGE_SIZE);
+                final Vault.Page<TodoState> results = TodoEvents.vaultQuery(getClass().getName(), TodoState.class,
+                    () -> getServiceHub().getVaultQueryService().queryBy(
+                        TodoState.class, criteria, paging, TodoStatePager.RECORDED_ORDER));
+                final List<StateAndRef<TodoState>> states = results.getStates();
+                final List<Vault.StateMetadata> metadata = results.getStatesMetadata();
+                for (int i = 0; i < states.size() && misplaced.size() < maxMoves; i++) {
+                    // Pages are in recorded-time order, so nothing after this point is cold.
+                    if (!metadata.get(i).getRecordedTime().isBefore(coldBefore)) return misplaced;
+                    final StateAndRef<TodoState> todo = states.get(i);
+                    final TodoState state = todo.getState().getData();
+                    if (!state.getOwner().equals(me)) continue;
+                    final Party target = NotaryShards.select(getServiceHub(), state.getLinearId());
+                    if (!todo.getState().getNotary().equals(target)) misplaced.add(todo);
+                }
+                if (states.size() < PAGE_SIZE) break;
+            }
+            return misplaced;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.flow;
+
+import co.paralleluniverse.fibers.Suspendable;
+import com.example.contract.TodoContract;
+import com.example.events.TodoEvents;
+import com.example.query.TodoQuery;
+import com.example.state.TodoState;
+import net.corda.core.contracts.Command;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.StateRef;
+import net.corda.core.contracts.TransactionType;
+import net.corda.core.flows.FlowException;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.flows.SchedulableFlow;
+import net.corda.core.identity.Party;
+import net.corda.core.node.services.StatesNotAvailableException;
+import net.corda.core.node.services.vault.PageSpecification;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.core.transactions.TransactionBuilder;
+import net.corda.core.utilities.NonEmptySet;
+import net.corda.core.utilities.ProgressTracker;
+import net.corda.flows.FinalityFlow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static net.corda.core.node.services.vault.QueryCriteriaUtilsKt.DEFAULT_PAGE_NUM;
+
+/**
+ * Sends the reminders that are due, started by the node's scheduler when a [TodoState]'s next reminder time passes.
+ *
+ * The scheduler starts one of these per due state, on the owner's and the assignee's node alike, but they are
+ * coalesced: the first to run on the owner's node takes every reminder of that node's that is due, up to
+ * [MAX_BATCH], from the index on next reminder time, and soft-locks them. Later flows find their own todo already
+ * reminded or locked and return without doing anything, as do flows on the assignee's node. Reminders are sent as
+ * one Remind transaction per notary, signed by the owner only, and [FinalityFlow] delivers each to the assignees.
+ */
+@SchedulableFlow
+public class TodoReminderFlow extends FlowLogic<Integer> {
+    public static final int MAX_BATCH = 200;
+
+    static private final Logger logger = LoggerFactory.getLogger(TodoReminderFlow.class);
+
+    private final StateRef trigger;
+
+    private final ProgressTracker progressTracker = new ProgressTracker(
+        COLLECTING_REMINDERS,
+        SENDING_REMINDERS
+    );
+
+    private static final ProgressTracker.Step COLLECTING_REMINDERS = new ProgressTracker.Step("Collecting the reminders that are due.");
+    private static final ProgressTracker.Step SENDING_REMINDERS = new ProgressTracker.Step("Recording and sending reminders.");
+
+    public TodoReminderFlow(StateRef trigger) {
+        this.trigger = trigger;
+    }
+
+    @Override
+    public ProgressTracker getProgressTracker() {
+        return progressTracker;
+    }
+
+    /**
+     * Returns the number of todos reminded.
+     */
+    @Suspendable
+    @Override
+    public Integer call() throws FlowException {
+        TodoEvents.recordSteps(this);
+        progressTracker.setCurrentStep(COLLECTING_REMINDERS);
+        final Party me = getServiceHub().getMyInfo().getLegalIdentity();
+        final TodoState triggerState = (TodoState) getServiceHub().toStateAndRef(trigger).getState().getData();
+        if (!triggerState.getOwner().equals(me)) return 0;
+
+        final Instant now = getServiceHub().getClock().instant();
+        final List<StateAndRef<TodoState>> due = TodoEvents.vaultQuery(getClass().getName(), TodoState.class,
+            () -> getServiceHub().getVaultQueryService().queryBy(TodoState.class,
+                TodoQuery.remindersDue(me.getName(), now), new PageSpecification(DEFAULT_PAGE_NUM, MAX_BATCH),
+                TodoQuery.REMINDER_ORDER)).getStates();
+
+        // Each notary can only notarise its own states, so there is one transaction per notary.
+        final Map<Party, List<StateAndRef<TodoState>>> byNotary = new LinkedHashMap<>();
+        for (StateAndRef<TodoState> todo : due) {
+            if (!reserve(todo)) continue;
+            byNotary.computeIfAbsent(todo.getState().getNotary(), notary -> new ArrayList<>()).add(todo);
+        }
+        if (byNotary.isEmpty()) return 0;
+
+        progressTracker.setCurrentStep(SENDING_REMINDERS);
+        int reminded = 0;
+        for (Map.Entry<Party, List<StateAndRef<TodoState>>> batch : byNotary.entrySet()) {
+            final TransactionBuilder txBuilder = new TransactionType.General.Builder(batch.getKey());
+            for (StateAndRef<TodoState> todo : batch.getValue()) {
+                final TodoState state = todo.getState().getData();
+                txBuilder.addInputState(todo);
+                txBuilder.addOutputState(new TodoState(
+                    state.getTodoItem().reminded(), state.getOwner(), state.getAssignee(), state.getLinearId()));
+            }
+            txBuilder.addCommand(new Command(new TodoContract.Commands.Remind(), me.getOwningKey()));
+
+            txBuilder.toWireTransaction().toLedgerTransaction(getServiceHub()).verify();
+            final SignedTransaction stx = getServiceHub().signInitialTransaction(txBuilder);
+            subFlow(new FinalityFlow(stx));
+            reminded += batch.getValue().size();
+        }
+        logger.info("Sent {} todo reminders in {} transactions", reminded, byNotary.size());
+        return reminded;
+    }
+
+    /** Soft-locks [todo] for this flow; false if another flow, typically another reminder batch, already has. */
+    private boolean reserve(StateAndRef<TodoState> todo) {
+        try {
+            getServiceHub().getVaultService().softLockReserve(getRunId().getUuid(), new NonEmptySet<>(todo.getRef()));
+            return true;
+        } catch (StatesNotAvailableException ex) {
+            return false;
+        }
+    }
+}
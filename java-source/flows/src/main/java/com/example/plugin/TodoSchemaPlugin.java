@@ -0,0 +1,16 @@
+package com.example.plugin;
+
+import com.example.schema.TodoSchemaV1;
+import com.google.common.collect.ImmutableSet;
+import net.corda.core.node.CordaPluginRegistry;
+import net.corda.core.schemas.MappedSchema;
+
+import java.util.Set;
+
+/**
+ * Registers [TodoSchemaV1] with the node, so that vault queries can use its columns as well as todos being written
+ * to it.
+ */
+public class TodoSchemaPlugin extends CordaPluginRegistry {
+    @Override public Set<MappedSchema> getRequiredSchemas() { return ImmutableSet.of(TodoSchemaV1.INSTANCE); }
+}
@@ -0,0 +1,87 @@
+package com.example.query;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * An opaque, URL-safe resume token for a [TodoStatePager] walk.
+ *
+ * The token only records a place in the recorded-time ordering, either a [TodoStatePager.Key] or a plain sequence
+ * number, so it stays valid across web server restarts. The [scope] guards against a cursor taken from one kind of
+ * walk being replayed against another.
+ */
+public final class TodoCursor {
+    private static final String VERSION = "v1";
+    private static final String KEY_VERSION = "v2";
+
+    private TodoCursor() {}
+
+    public static String encode(String scope, long position) {
+        return encode(VERSION + ":" + scope + ":" + position);
+    }
+
+    public static String encode(String scope, TodoStatePager.Key key) {
+        if (key.isStart()) return encode(KEY_VERSION + ":" + scope + ":start");
+        return encode(KEY_VERSION + ":" + scope + ":" + key.getTime().getEpochSecond() + ":" + key.getTime().getNano()
+            + ":" + key.getTxId() + ":" + key.getIndex());
+    }
+
+    /**
+     * Returns the position encoded in [cursor], or 0 when [cursor] is null or empty.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for a different scope.
+     */
+    public static long decode(String scope, String cursor) {
+        if (cursor == null || cursor.isEmpty()) return 0;
+        final String[] parts = parts(VERSION, scope, cursor);
+        if (parts.length != 3) throw new IllegalArgumentException("Malformed cursor.");
+        try {
+            final long position = Long.parseLong(parts[2]);
+            if (position < 0) throw new IllegalArgumentException("Malformed cursor.");
+            return position;
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Malformed cursor.");
+        }
+    }
+
+    /**
+     * Returns the key encoded in [cursor], or [TodoStatePager.Key.START] when [cursor] is null or empty.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for a different scope.
+     */
+    public static TodoStatePager.Key decodeKey(String scope, String cursor) {
+        if (cursor == null || cursor.isEmpty()) return TodoStatePager.Key.START;
+        final String[] parts = parts(KEY_VERSION, scope, cursor);
+        if (parts.length == 3 && parts[2].equals("start")) return TodoStatePager.Key.START;
+        if (parts.length != 6) throw new IllegalArgumentException("Malformed cursor.");
+        try {
+            final Instant time = Instant.ofEpochSecond(Long.parseLong(parts[2]), Long.parseLong(parts[3]));
+            final int index = Integer.parseInt(parts[5]);
+            if (parts[4].isEmpty() || index < 0) throw new IllegalArgumentException("Malformed cursor.");
+            return new TodoStatePager.Key(time, parts[4], index);
+        } catch (NumberFormatException | DateTimeException ex) {
+            throw new IllegalArgumentException("Malformed cursor.");
+        }
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Splits [cursor] into its fields, checking that it is of [version] and was issued for [scope]. */
+    private static String[] parts(String version, String scope, String cursor) {
+        final String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Malformed cursor.");
+        }
+        final String[] parts = raw.split(":");
+        if (parts.length < 3 || !parts[0].equals(version) || !parts[1].equals(scope)) {
+            throw new IllegalArgumentException("Cursor was not issued for " + scope + ".");
+        }
+        return parts;
+    }
+}
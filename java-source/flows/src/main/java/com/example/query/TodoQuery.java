@@ -0,0 +1,241 @@
+package com.example.query;
+
+import com.example.schema.TodoSchemaV1.PersistentTodo;
+import com.example.state.TodoState;
+import com.google.common.collect.ImmutableList;
+import net.corda.core.node.services.Vault;
+import net.corda.core.node.services.vault.Builder;
+import net.corda.core.node.services.vault.CriteriaExpression;
+import net.corda.core.node.services.vault.PageSpecification;
+import net.corda.core.node.services.vault.QueryCriteria;
+import net.corda.core.node.services.vault.Sort;
+import net.corda.core.node.services.vault.SortAttribute;
+import org.bouncycastle.asn1.x500.X500Name;
+
+import java.lang.reflect.Field;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static net.corda.core.node.services.vault.QueryCriteriaUtilsKt.DEFAULT_PAGE_NUM;
+
+/**
+ * Typed criteria over unconsumed todos, compiled to vault criteria on the columns of [TodoSchemaV1] so that the
+ * database filters, sorts and pages rather than the caller.
+ *
+ * Every criterion is pushed down, with one exception: LIKE cannot match the characters % and _ literally, so a title
+ * prefix is only pushed down up to the first of them, and the rest of the prefix is checked in memory by [matches].
+ * Such a page may then hold fewer than pageSize todos. [explain] lists what went where.
+ *
+ * The created range is half-open, [createdAfter, createdBefore); todos recorded before creation times were kept have
+ * none and never match it. Likewise dueBefore only matches todos that have a due date.
+ *
+ * A query is over unconsumed todos unless it is made [archived], when it is over the todos [TodoArchiveFlow] has
+ * consumed instead.
+ */
+public final class TodoQuery {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    public enum SortField {
+        CREATED("createdTime"),
+        DUE("dueTime"),
+        COMPLETED("completedTime"),
+        TITLE("title"),
+        OWNER("ownerName"),
+        ASSIGNEE("assigneeName");
+
+        final String attribute;
+
+        SortField(String attribute) {
+            this.attribute = attribute;
+        }
+
+        /** Returns the field called [name], ignoring case, or null if there is none. */
+        public static SortField fromName(String name) {
+            for (SortField field : values()) {
+                if (field.name().equalsIgnoreCase(name)) return field;
+            }
+            return null;
+        }
+    }
+
+    private final X500Name owner;
+    private final X500Name assignee;
+    private final Boolean complete;
+    private final String titlePrefix;
+    private final Instant createdAfter;
+    private final Instant createdBefore;
+    private final Instant dueBefore;
+    private final SortField sortField;
+    private final Sort.Direction direction;
+    private final int page;
+    private final int pageSize;
+    private final Vault.StateStatus status;
+
+    /**
+     * Null criteria are not applied. [page] counts from 1.
+     *
+     * @throws IllegalArgumentException if the page or page size is out of range, or the created range is empty.
+     */
+    public TodoQuery(X500Name owner, X500Name assignee, Boolean complete, String titlePrefix,
+                     Instant createdAfter, Instant createdBefore, Instant dueBefore,
+                     SortField sortField, Sort.Direction direction, int page, int pageSize)
+    {
+        if (page < 1) throw new IllegalArgumentException("page must be at least 1.");
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("pageSize must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        if (createdAfter != null && createdBefore != null && !createdAfter.isBefore(createdBefore)) {
+            throw new IllegalArgumentException("createdAfter must be before createdBefore.");
+        }
+        this.owner = owner;
+        this.assignee = assignee;
+        this.complete = complete;
+        this.titlePrefix = titlePrefix == null || titlePrefix.isEmpty() ? null : titlePrefix;
+        this.createdAfter = createdAfter;
+        this.createdBefore = createdBefore;
+        this.dueBefore = dueBefore;
+        this.sortField = sortField == null ? SortField.CREATED : sortField;
+        this.direction = direction == null ? Sort.Direction.ASC : direction;
+        this.page = page;
+        this.pageSize = pageSize;
+        this.status = Vault.StateStatus.UNCONSUMED;
+    }
+
+    private TodoQuery(TodoQuery query, Vault.StateStatus status) {
+        this.owner = query.owner;
+        this.assignee = query.assignee;
+        this.complete = true;
+        this.titlePrefix = query.titlePrefix;
+        this.createdAfter = query.createdAfter;
+        this.createdBefore = query.createdBefore;
+        this.dueBefore = query.dueBefore;
+        this.sortField = query.sortField;
+        this.direction = query.direction;
+        this.page = query.page;
+        this.pageSize = query.pageSize;
+        this.status = status;
+    }
+
+    /**
+     * The same query over archived todos. Completed todos are never changed again, so the only completed todos that
+     * are consumed are those that have been archived.
+     */
+    public TodoQuery archived() {
+        return new TodoQuery(this, Vault.StateStatus.CONSUMED);
+    }
+
+    /** The vault criteria for everything that can be pushed down. */
+    @SuppressWarnings("unchecked")
+    public QueryCriteria criteria() {
+        // Always constrained to rows of todo_states, which also limits the results to todos.
+        QueryCriteria criteria = custom(Builder.INSTANCE.notNull(field("linearId")), status);
+        if (owner != null) criteria = criteria.and(custom(Builder.INSTANCE.equal(field("ownerName"), owner.toString()), status));
+        if (assignee != null) criteria = criteria.and(custom(Builder.INSTANCE.equal(field("assigneeName"), assignee.toString()), status));
+        if (complete != null) criteria = criteria.and(custom(Builder.INSTANCE.equal(field("complete"), complete), status));
+        if (pushedTitlePrefix() != null) {
+            criteria = criteria.and(custom(Builder.INSTANCE.like(field("title"), pushedTitlePrefix() + "%"), status));
+        }
+        if (createdAfter != null) criteria = criteria.and(custom(Builder.INSTANCE.greaterThanOrEqual(field("createdTime"), createdAfter), status));
+        if (createdBefore != null) criteria = criteria.and(custom(Builder.INSTANCE.lessThan(field("createdTime"), createdBefore), status));
+        if (dueBefore != null) criteria = criteria.and(custom(Builder.INSTANCE.lessThan(field("dueTime"), dueBefore), status));
+        return criteria;
+    }
+
+    /** The requested order, then state ref, so that pages do not overlap when sort values tie. */
+    public Sort sort() {
+        return new Sort(ImmutableList.of(
+            new Sort.SortColumn(new SortAttribute.Custom(PersistentTodo.class, sortField.attribute), direction),
+            new Sort.SortColumn(new SortAttribute.Standard(Sort.CommonStateAttribute.STATE_REF_TXN_ID), Sort.Direction.ASC),
+            new Sort.SortColumn(new SortAttribute.Standard(Sort.CommonStateAttribute.STATE_REF_INDEX), Sort.Direction.ASC)));
+    }
+
+    /** [page] counts from 1; the vault's page numbers count from DEFAULT_PAGE_NUM. */
+    public PageSpecification paging() {
+        return new PageSpecification(DEFAULT_PAGE_NUM + page - 1, pageSize);
+    }
+
+    /** Checks what could not be pushed down; true for every todo the vault returned when everything was. */
+    public boolean matches(TodoState state) {
+        return titlePrefix == null || state.getTodoItem().getTitle().startsWith(titlePrefix);
+    }
+
+    /** Describes each criterion and where it is applied. */
+    public List<String> explain() {
+        final List<String> plan = new ArrayList<>();
+        plan.add("pushed down: todo_states rows only");
+        plan.add("pushed down: " + (status == Vault.StateStatus.CONSUMED ? "archived" : "unconsumed") + " todos only");
+        if (owner != null) plan.add("pushed down: owner_name = '" + owner + "'");
+        if (assignee != null) plan.add("pushed down: assignee_name = '" + assignee + "'");
+        if (complete != null) plan.add("pushed down: complete = " + complete);
+        if (titlePrefix != null) {
+            final String pushed = pushedTitlePrefix();
+            if (pushed != null) plan.add("pushed down: title LIKE '" + pushed + "%'");
+            if (!titlePrefix.equals(pushed)) plan.add("in memory: title starts with '" + titlePrefix + "'");
+        }
+        if (createdAfter != null) plan.add("pushed down: created_time >= " + createdAfter);
+        if (createdBefore != null) plan.add("pushed down: created_time < " + createdBefore);
+        if (dueBefore != null) plan.add("pushed down: due_time < " + dueBefore);
+        plan.add("pushed down: ORDER BY " + sortField.name().toLowerCase() + " " + direction + ", state ref");
+        plan.add("pushed down: page " + page + " of size " + pageSize);
+        return Collections.unmodifiableList(plan);
+    }
+
+    /**
+     * Unconsumed todos owned by [owner] whose next reminder is due at or before [now], over the index on owner and
+     * next reminder time. Use with [REMINDER_ORDER].
+     */
+    @SuppressWarnings("unchecked")
+    public static QueryCriteria remindersDue(X500Name owner, Instant now) {
+        return custom(Builder.INSTANCE.equal(field("ownerName"), owner.toString()), Vault.StateStatus.UNCONSUMED)
+            .and(custom(Builder.INSTANCE.lessThanOrEqual(field("nextReminderTime"), now), Vault.StateStatus.UNCONSUMED));
+    }
+
+    /** Longest-overdue reminder first. */
+    public static final Sort REMINDER_ORDER = new Sort(ImmutableList.of(
+        new Sort.SortColumn(new SortAttribute.Custom(PersistentTodo.class, "nextReminderTime"), Sort.Direction.ASC),
+        new Sort.SortColumn(new SortAttribute.Standard(Sort.CommonStateAttribute.STATE_REF_TXN_ID), Sort.Direction.ASC),
+        new Sort.SortColumn(new SortAttribute.Standard(Sort.CommonStateAttribute.STATE_REF_INDEX), Sort.Direction.ASC)));
+
+    /**
+     * Unconsumed todos owned by [owner] that were completed at or before [completedBefore], over the index on owner
+     * and completion time. Use with [ARCHIVE_ORDER].
+     */
+    @SuppressWarnings("unchecked")
+    public static QueryCriteria archivable(X500Name owner, Instant completedBefore) {
+        return custom(Builder.INSTANCE.equal(field("ownerName"), owner.toString()), Vault.StateStatus.UNCONSUMED)
+            .and(custom(Builder.INSTANCE.lessThanOrEqual(field("completedTime"), completedBefore), Vault.StateStatus.UNCONSUMED));
+    }
+
+    /** Longest-completed first. */
+    public static final Sort ARCHIVE_ORDER = new Sort(ImmutableList.of(
+        new Sort.SortColumn(new SortAttribute.Custom(PersistentTodo.class, "completedTime"), Sort.Direction.ASC),
+        new Sort.SortColumn(new SortAttribute.Standard(Sort.CommonStateAttribute.STATE_REF_TXN_ID), Sort.Direction.ASC),
+        new Sort.SortColumn(new SortAttribute.Standard(Sort.CommonStateAttribute.STATE_REF_INDEX), Sort.Direction.ASC)));
+
+    /** The part of the title prefix before any LIKE wildcard, or null if there is none. */
+    private String pushedTitlePrefix() {
+        if (titlePrefix == null) return null;
+        int end = titlePrefix.length();
+        for (char wildcard : new char[] { '%', '_' }) {
+            final int index = titlePrefix.indexOf(wildcard);
+            if (index >= 0) end = Math.min(end, index);
+        }
+        return end == 0 ? null : titlePrefix.substring(0, end);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static QueryCriteria custom(CriteriaExpression expression, Vault.StateStatus status) {
+        return new QueryCriteria.VaultCustomQueryCriteria(expression, status);
+    }
+
+    private static Field field(String name) {
+        try {
+            return PersistentTodo.class.getDeclaredField(name);
+        } catch (NoSuchFieldException ex) {
+            throw new IllegalStateException("PersistentTodo has no field " + name, ex);
+        }
+    }
+}
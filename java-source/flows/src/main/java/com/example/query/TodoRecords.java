@@ -0,0 +1,51 @@
+package com.example.query;
+
+import com.example.model.TodoItem;
+import com.example.state.TodoState;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.node.services.Vault;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Flattens a [TodoState] and its vault metadata into a simple record of strings, numbers and booleans, for writing
+ * to CSV, NDJSON or another store that knows nothing of Corda types.
+ *
+ * A version's record is taken when it is read, so one read while it was unconsumed says so for good. Its
+ * [consumption] record, taken once it has been consumed, supersedes the status and consumed time of the record with
+ * the same txId and outputIndex.
+ */
+public final class TodoRecords {
+    private TodoRecords() {}
+
+    public static Map<String, Object> flatten(StateAndRef<TodoState> stateAndRef, Vault.StateMetadata metadata) {
+        final TodoState state = stateAndRef.getState().getData();
+        final TodoItem item = state.getTodoItem();
+        final Map<String, Object> record = new LinkedHashMap<>();
+        record.put("linearId", state.getLinearId().getId().toString());
+        record.put("txId", stateAndRef.getRef().getTxhash().toString());
+        record.put("outputIndex", stateAndRef.getRef().getIndex());
+        record.put("status", metadata.getStatus().name());
+        record.put("recordedTime", metadata.getRecordedTime().toString());
+        record.put("consumedTime", metadata.getConsumedTime() == null ? null : metadata.getConsumedTime().toString());
+        record.put("title", item.getTitle());
+        record.put("description", item.getDescription());
+        record.put("complete", item.isComplete());
+        record.put("created", item.getCreated() == null ? null : item.getCreated().toString());
+        record.put("owner", state.getOwner().getName().toString());
+        record.put("assignee", state.getAssignee().getName().toString());
+        return record;
+    }
+
+    /** The fields of [flatten] that change when [stateAndRef] is consumed, keyed as it is. */
+    public static Map<String, Object> consumption(StateAndRef<TodoState> stateAndRef, Vault.StateMetadata metadata) {
+        final Map<String, Object> record = new LinkedHashMap<>();
+        record.put("linearId", stateAndRef.getState().getData().getLinearId().getId().toString());
+        record.put("txId", stateAndRef.getRef().getTxhash().toString());
+        record.put("outputIndex", stateAndRef.getRef().getIndex());
+        record.put("status", metadata.getStatus().name());
+        record.put("consumedTime", metadata.getConsumedTime() == null ? null : metadata.getConsumedTime().toString());
+        return record;
+    }
+}
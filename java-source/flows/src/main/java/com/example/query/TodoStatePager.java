@@ -0,0 +1,270 @@
+package com.example.query;
+
+import com.example.state.TodoState;
+import com.google.common.collect.ImmutableList;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.StateRef;
+import net.corda.core.messaging.CordaRPCOps;
+import net.corda.core.node.services.Vault;
+import net.corda.core.node.services.vault.BinaryComparisonOperator;
+import net.corda.core.node.services.vault.ColumnPredicate;
+import net.corda.core.node.services.vault.PageSpecification;
+import net.corda.core.node.services.vault.QueryCriteria;
+import net.corda.core.node.services.vault.Sort;
+import net.corda.core.node.services.vault.SortAttribute;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static net.corda.core.node.services.vault.QueryCriteriaUtilsKt.DEFAULT_PAGE_NUM;
+
+/**
+ * Walks every [TodoState] matching a set of criteria one vault page at a time, so that memory use is bounded by the
+ * page size rather than the size of the vault.
+ *
+ * States are visited in recorded-time order (ties broken by state ref). Under [Vault.StateStatus.ALL] consuming a
+ * state changes its status but not its place, so the [Key] of the last state visited is a resume point, which is what
+ * [TodoCursor] encodes.
+ *
+ * States can instead be walked in consumed-time [Order] under [Vault.StateStatus.CONSUMED], where a state is likewise
+ * consumed once and keeps its place.
+ *
+ * Resuming from a key assumes that the order is append-only, i.e. that nothing is later recorded (or consumed) with an
+ * earlier time than a state already visited. That holds only while the node's clock never steps backwards and its
+ * commits land in timestamp order. A state that breaks it is behind the key and is never visited by a walk resumed
+ * from there. Callers that must not miss such states resume with an overlap instead: see [forEach] with a [Recent].
+ *
+ * Each page is read by key rather than by offset: from the time of the last state visited onwards, skipping the
+ * states at that instant already visited. The database can seek straight to that time, so reading the millionth
+ * page costs the same as reading the first, where an offset would have it count past every earlier row again.
+ */
+public class TodoStatePager {
+    public static final int DEFAULT_PAGE_SIZE = 500;
+
+    /** Recorded time, then state ref, so the order is total and repeatable between queries. */
+    public static final Sort RECORDED_ORDER = new Sort(ImmutableList.of(
+        new Sort.SortColumn(new SortAttribute.Standard(Sort.VaultStateAttribute.RECORDED_TIME), Sort.Direction.ASC),
+        new Sort.SortColumn(new SortAttribute.Standard(Sort.CommonStateAttribute.STATE_REF_TXN_ID), Sort.Direction.ASC),
+        new Sort.SortColumn(new SortAttribute.Standard(Sort.CommonStateAttribute.STATE_REF_INDEX), Sort.Direction.ASC)));
+
+    /** Consumed time, then state ref. Only consumed states have a consumed time. */
+    public static final Sort CONSUMED_ORDER = new Sort(ImmutableList.of(
+        new Sort.SortColumn(new SortAttribute.Standard(Sort.VaultStateAttribute.CONSUMED_TIME), Sort.Direction.ASC),
+        new Sort.SortColumn(new SortAttribute.Standard(Sort.CommonStateAttribute.STATE_REF_TXN_ID), Sort.Direction.ASC),
+        new Sort.SortColumn(new SortAttribute.Standard(Sort.CommonStateAttribute.STATE_REF_INDEX), Sort.Direction.ASC)));
+
+    /** The orders a walk can take, each by one of the vault's timestamps. */
+    public enum Order {
+        RECORDED(RECORDED_ORDER, QueryCriteria.TimeInstantType.RECORDED),
+        CONSUMED(CONSUMED_ORDER, QueryCriteria.TimeInstantType.CONSUMED);
+
+        final Sort sort;
+        final QueryCriteria.TimeInstantType timeType;
+
+        Order(Sort sort, QueryCriteria.TimeInstantType timeType) {
+            this.sort = sort;
+            this.timeType = timeType;
+        }
+
+        Instant time(Vault.StateMetadata metadata) {
+            return this == RECORDED ? metadata.getRecordedTime() : metadata.getConsumedTime();
+        }
+    }
+
+    /** A place in a walk's [Order]: the recorded or consumed time and state ref of a state. */
+    public static final class Key {
+        /** Before every state. */
+        public static final Key START = new Key(null, null, -1);
+
+        private final Instant time;
+        private final String txId;
+        private final int index;
+
+        public Key(Instant time, String txId, int index) {
+            this.time = time;
+            this.txId = txId;
+            this.index = index;
+        }
+
+        static Key of(StateRef ref, Instant time) {
+            return new Key(time, ref.getTxhash().toString(), ref.getIndex());
+        }
+
+        /** The recorded or consumed time, or null for [START]. */
+        public Instant getTime() { return time; }
+        public String getTxId() { return txId; }
+        public int getIndex() { return index; }
+
+        public boolean isStart() { return time == null; }
+
+        /** Whether this key comes after [other] in the order of their walk. */
+        public boolean isAfter(Key other) {
+            if (other.isStart()) return !isStart();
+            if (isStart()) return false;
+            int order = time.compareTo(other.time);
+            if (order == 0) order = txId.compareTo(other.txId);
+            if (order == 0) order = Integer.compare(index, other.index);
+            return order > 0;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            final Key key = (Key) o;
+            return index == key.index && Objects.equals(time, key.time) && Objects.equals(txId, key.txId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(time, txId, index);
+        }
+
+        @Override
+        public String toString() {
+            return isStart() ? "start" : time + " " + txId + "(" + index + ")";
+        }
+    }
+
+    /**
+     * The states a walk has visited within [overlap] of its furthest key, so that a walk resumed with them can re-read
+     * that stretch for states recorded late, without visiting again those it already has.
+     */
+    public static final class Recent {
+        private final Duration overlap;
+        private final Map<StateRef, Instant> visited = new HashMap<>();
+
+        public Recent(Duration overlap) {
+            this.overlap = overlap;
+        }
+
+        public Duration getOverlap() { return overlap; }
+
+        /** Records [ref], at [time], as visited. Returns false if it already was. */
+        boolean add(StateRef ref, Instant time) {
+            return visited.put(ref, time) == null;
+        }
+
+        boolean contains(StateRef ref) {
+            return visited.containsKey(ref);
+        }
+
+        /** Forgets the states visited before [since], which a walk will not re-read again. */
+        void forgetBefore(Instant since) {
+            visited.values().removeIf(time -> time.isBefore(since));
+        }
+    }
+
+    public interface Visitor<E extends Exception> {
+        /** Called once per state. [key] is the state's own, i.e. the resume point if the walk stops after it. */
+        void visit(Key key, StateAndRef<TodoState> state, Vault.StateMetadata metadata) throws E;
+    }
+
+    private final CordaRPCOps services;
+    private final int pageSize;
+
+    public TodoStatePager(CordaRPCOps services, int pageSize) {
+        this.services = services;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Visits the states matching [criteria] that come after [from] in recorded-time order, stopping after [limit]
+     * states or at the end of the vault. Returns the key to resume from, which is [from] if there was nothing to visit.
+     */
+    public <E extends Exception> Key forEach(QueryCriteria criteria, Key from, long limit, Visitor<E> visitor) throws E {
+        return forEach(criteria, Order.RECORDED, from, limit, visitor);
+    }
+
+    /**
+     * As [forEach], but first re-reads the states in [recent]'s overlap before [from], visiting those that were recorded
+     * there after the walk had passed. Every state visited is added to [recent]. A late state is visited with its own
+     * key, which is behind [from] and so is not a resume point; the key returned is never behind [from].
+     *
+     * [recent] only knows the states visited since it was created, so a walk resumed with a fresh one visits the whole
+     * overlap again. That suits consumers, such as the replication client's store, that ignore duplicates.
+     */
+    public <E extends Exception> Key forEach(QueryCriteria criteria, Order order, Key from, Recent recent, long limit,
+                                             Visitor<E> visitor) throws E
+    {
+        long remaining = limit;
+        if (!from.isStart()) {
+            final Instant since = from.getTime().minus(recent.getOverlap());
+            recent.forgetBefore(since);
+            // The overlap is a short, bounded stretch, so it is paged by offset.
+            for (int pageNumber = DEFAULT_PAGE_NUM; remaining > 0; pageNumber++) {
+                final Vault.Page<TodoState> page = services.vaultQueryBy(between(order, since, from.getTime(), criteria),
+                    new PageSpecification(pageNumber, pageSize), order.sort, TodoState.class);
+
+                final List<StateAndRef<TodoState>> states = page.getStates();
+                final List<Vault.StateMetadata> metadata = page.getStatesMetadata();
+                for (int i = 0; i < states.size() && remaining > 0; i++) {
+                    final Key key = Key.of(states.get(i).getRef(), order.time(metadata.get(i)));
+                    // Those after [from] are left to the walk proper.
+                    if (key.isAfter(from) || !recent.add(states.get(i).getRef(), key.getTime())) continue;
+                    visitor.visit(key, states.get(i), metadata.get(i));
+                    remaining--;
+                }
+                if (states.size() < pageSize) break;
+            }
+        }
+        return forEach(criteria, order, from, remaining, (key, state, metadata) -> {
+            if (!recent.contains(state.getRef())) {
+                recent.add(state.getRef(), key.getTime());
+                visitor.visit(key, state, metadata);
+            }
+        });
+    }
+
+    /** As [forEach], in [order]. A walk in consumed-time order must be over consumed states only. */
+    public <E extends Exception> Key forEach(QueryCriteria criteria, Order order, Key from, long limit,
+                                             Visitor<E> visitor) throws E
+    {
+        Key last = from;
+        long remaining = limit;
+        // Only advances when a whole page shares the last key's time and was skipped, so the next page of
+        // the same query is needed to get past it.
+        int pageNumber = DEFAULT_PAGE_NUM;
+        while (remaining > 0) {
+            final Vault.Page<TodoState> page = services.vaultQueryBy(
+                after(order, last, criteria), new PageSpecification(pageNumber, pageSize), order.sort, TodoState.class);
+
+            final List<StateAndRef<TodoState>> states = page.getStates();
+            final List<Vault.StateMetadata> metadata = page.getStatesMetadata();
+            boolean advanced = false;
+            for (int i = 0; i < states.size() && remaining > 0; i++) {
+                final Key key = Key.of(states.get(i).getRef(), order.time(metadata.get(i)));
+                if (!key.isAfter(last)) continue;
+                visitor.visit(key, states.get(i), metadata.get(i));
+                last = key;
+                remaining--;
+                advanced = true;
+            }
+            if (states.size() < pageSize) break;
+            pageNumber = advanced ? DEFAULT_PAGE_NUM : pageNumber + 1;
+        }
+        return last;
+    }
+
+    /** [criteria] restricted to states recorded, or consumed, no earlier than [key]. */
+    private static QueryCriteria after(Order order, Key key, QueryCriteria criteria) {
+        if (key.isStart()) return criteria;
+        // Status ALL adds no status filter of its own, and the caller's criteria come last so that their status is
+        // the one that applies to the whole query.
+        final QueryCriteria since = new QueryCriteria.VaultQueryCriteria(Vault.StateStatus.ALL, null, null, null,
+            true, new QueryCriteria.TimeCondition(order.timeType,
+                new ColumnPredicate.BinaryComparison<>(BinaryComparisonOperator.GREATER_THAN_OR_EQUAL, key.getTime())));
+        return since.and(criteria);
+    }
+
+    /** [criteria] restricted to states recorded, or consumed, from [since] to [until] inclusive. */
+    private static QueryCriteria between(Order order, Instant since, Instant until, QueryCriteria criteria) {
+        final QueryCriteria within = new QueryCriteria.VaultQueryCriteria(Vault.StateStatus.ALL, null, null, null,
+            true, new QueryCriteria.TimeCondition(order.timeType, new ColumnPredicate.Between<>(since, until)));
+        return within.and(criteria);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.events;
+
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import net.corda.core.utilities.ProgressTracker;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class TodoEventsTests {
+    private static final String[] EVENTS = {
+        "com.example.HttpRequest", "com.example.RpcCall", "com.example.VaultQuery", "com.example.FlowStep" };
+
+    private Recording recording;
+
+    @Before
+    public void setUp() {
+        assumeTrue("This JVM has no Flight Recorder", TodoEvents.AVAILABLE);
+        recording = new Recording();
+    }
+
+    @After
+    public void tearDown() {
+        if (recording != null) recording.close();
+    }
+
+    private void enable(Duration threshold) {
+        for (String event : EVENTS) recording.enable(event).withThreshold(threshold);
+        recording.start();
+    }
+
+    private List<RecordedEvent> events(String name) throws IOException {
+        if (recording.getState() == RecordingState.RUNNING) recording.stop();
+        final Path file = Files.createTempFile("todo-events", ".jfr");
+        try {
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .collect(toList());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void nothingIsRecordedUnlessARecordingWantsIt() {
+        assertSame(TodoEvents.HttpRequest.NONE, TodoEvents.httpRequest("GET", "todo/me"));
+        assertSame(TodoEvents.RpcCall.NONE, TodoEvents.rpcCall("nodeIdentity", -1));
+        assertSame(TodoEvents.VaultQuery.NONE, TodoEvents.vaultQuery("rpc", String.class));
+    }
+
+    @Test
+    public void recordsRequestsWithTheirStatus() throws IOException {
+        enable(Duration.ZERO);
+        TodoEvents.httpRequest("POST", "todo/create").end(201);
+
+        final List<RecordedEvent> events = events("com.example.HttpRequest");
+        assertEquals(1, events.size());
+        assertEquals("POST", events.get(0).getString("method"));
+        assertEquals("todo/create", events.get(0).getString("path"));
+        assertEquals(201, events.get(0).getInt("status"));
+    }
+
+    @Test
+    public void recordsRpcCallsAndVaultQueriesWithTheirOutcome() throws IOException {
+        enable(Duration.ZERO);
+        TodoEvents.rpcCall("vaultQueryBy", 2).end(true);
+        TodoEvents.vaultQuery("rpc", String.class).end(25, 1000);
+
+        final List<RecordedEvent> calls = events("com.example.RpcCall");
+        assertEquals(1, calls.size());
+        assertEquals("vaultQueryBy", calls.get(0).getString("method"));
+        assertEquals(2, calls.get(0).getInt("connection"));
+        assertTrue(calls.get(0).getBoolean("failed"));
+
+        final List<RecordedEvent> queries = events("com.example.VaultQuery");
+        assertEquals(1, queries.size());
+        assertEquals(String.class.getName(), queries.get(0).getString("stateType"));
+        assertEquals(25, queries.get(0).getInt("states"));
+        assertEquals(1000L, queries.get(0).getLong("totalStatesAvailable"));
+    }
+
+    @Test
+    public void eventsUnderTheThresholdAreDropped() throws IOException {
+        enable(Duration.ofHours(1));
+        TodoEvents.httpRequest("GET", "todo/me").end(200);
+        assertTrue(events("com.example.HttpRequest").isEmpty());
+    }
+
+    @Test
+    public void flowStepsEndWhenTheirTrackerOrOneAboveItMovesOn() throws IOException {
+        final ProgressTracker.Step first = new ProgressTracker.Step("First");
+        final ProgressTracker.Step second = new ProgressTracker.Step("Second");
+        final ProgressTracker.Step childFirst = new ProgressTracker.Step("Child first");
+        final ProgressTracker.Step childSecond = new ProgressTracker.Step("Child second");
+        final ProgressTracker tracker = new ProgressTracker(first, second);
+        final ProgressTracker child = new ProgressTracker(childFirst, childSecond);
+
+        enable(Duration.ZERO);
+        JfrEvents.recordSteps("TestFlow", "run-1", tracker);
+        tracker.setCurrentStep(first);
+        tracker.setCurrentStep(second);
+        tracker.setChildProgressTracker(second, child);
+        child.setCurrentStep(childFirst);
+        child.setCurrentStep(childSecond);
+        tracker.setCurrentStep(ProgressTracker.DONE.INSTANCE);
+
+        final List<RecordedEvent> steps = events("com.example.FlowStep");
+        final Set<String> recorded = steps.stream()
+            .map(step -> step.getString("step") + "@" + step.getInt("depth"))
+            .collect(toSet());
+        assertEquals(new HashSet<>(Arrays.asList("First@0", "Second@0", "Child first@1", "Child second@1")), recorded);
+        assertEquals(4, steps.size());
+        assertTrue(steps.stream().allMatch(step -> step.getString("runId").equals("run-1")));
+    }
+
+    @Test
+    public void subflowTrackersAreLeftToTheirParent() throws IOException {
+        final ProgressTracker.Step step = new ProgressTracker.Step("Step");
+        final ProgressTracker tracker = new ProgressTracker(step);
+        final ProgressTracker child = new ProgressTracker(step);
+        tracker.setCurrentStep(step);
+        tracker.setChildProgressTracker(step, child);
+
+        enable(Duration.ZERO);
+        JfrEvents.recordSteps("SubFlow", "run-2", child);
+        child.setCurrentStep(ProgressTracker.DONE.INSTANCE);
+        assertFalse(events("com.example.FlowStep").stream().anyMatch(e -> e.getString("flow").equals("SubFlow")));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.flow;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class NotaryShardsTests {
+    private static final Function<String, String> NAME = Function.identity();
+
+    @Test
+    public void selectionDoesNotDependOnNotaryOrder() {
+        List<String> notaries = Arrays.asList("Notary1", "Notary2", "Notary3");
+        List<String> reversed = Arrays.asList("Notary3", "Notary2", "Notary1");
+        for (int i = 0; i < 100; i++) {
+            String key = UUID.randomUUID().toString();
+            assertEquals(NotaryShards.select(notaries, NAME, key), NotaryShards.select(reversed, NAME, key));
+        }
+    }
+
+    @Test
+    public void todosAreSpreadAcrossNotaries() {
+        List<String> notaries = Arrays.asList("Notary1", "Notary2", "Notary3");
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            counts.merge(NotaryShards.select(notaries, NAME, UUID.randomUUID().toString()), 1, Integer::sum);
+        }
+        for (String notary : notaries) {
+            assertTrue(notary + " got " + counts.get(notary), counts.getOrDefault(notary, 0) > 600);
+        }
+    }
+
+    @Test
+    public void addingANotaryOnlyMovesTodosOntoIt() {
+        List<String> before = Arrays.asList("Notary1", "Notary2");
+        List<String> after = Arrays.asList("Notary1", "Notary2", "Notary3");
+        int moved = 0;
+        for (int i = 0; i < 3000; i++) {
+            String key = UUID.randomUUID().toString();
+            String oldShard = NotaryShards.select(before, NAME, key);
+            String newShard = NotaryShards.select(after, NAME, key);
+            if (!oldShard.equals(newShard)) {
+                assertEquals("Notary3", newShard);
+                moved++;
+            }
+        }
+        assertTrue("moved " + moved, moved > 600 && moved < 1400);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.flow;
+
+import co.paralleluniverse.fibers.Suspendable;
+import com.example.contract.TodoContract;
+import com.example.model.TodoItem;
+import com.example.state.TodoState;
+import net.corda.core.contracts.Command;
+import net.corda.core.contracts.TransactionType;
+import net.corda.core.flows.FlowException;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.identity.AbstractParty;
+import net.corda.core.identity.Party;
+import net.corda.core.transactions.LedgerTransaction;
+import net.corda.core.transactions.TransactionBuilder;
+import net.corda.testing.node.MockNetwork;
+import net.corda.testing.node.MockNetwork.MockNode;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Times [ParallelVerifier] on batches of todo create transactions at increasing parallelism, to show how batch
+ * verification scales with cores. Run it with the runParallelVerifierBenchmark task, or directly (with the Quasar
+ * agent):
+ *
+ *   ParallelVerifierBenchmark [batch size] [rounds]
+ *
+ * A batch is built and resolved once on a mock node, then verified [rounds] times at each parallelism from 1 up to
+ * the number of cores; the fastest round is reported with its speed-up over one thread.
+ */
+public class ParallelVerifierBenchmark {
+    private static class TimeVerification extends FlowLogic<Map<Integer, Long>> {
+        private final int batchSize;
+        private final int rounds;
+
+        TimeVerification(int batchSize, int rounds) {
+            this.batchSize = batchSize;
+            this.rounds = rounds;
+        }
+
+        /** Returns the fastest round at each parallelism, in microseconds. */
+        @Suspendable
+        @Override
+        public Map<Integer, Long> call() throws FlowException {
+            final Party me = getServiceHub().getMyInfo().getLegalIdentity();
+            final List<LedgerTransaction> batch = new ArrayList<>(batchSize);
+            for (int i = 0; i < batchSize; i++) {
+                final TodoState todoState = new TodoState(new TodoItem("Todo " + i, "Benchmark", false), me, me);
+                final TransactionBuilder builder = new TransactionType.General.Builder(NotaryShards.select(getServiceHub(), todoState.getLinearId()))
+                    .withItems(todoState, new Command(new TodoContract.Commands.Create(),
+                        todoState.getParticipants().stream().map(AbstractParty::getOwningKey).collect(Collectors.toList())));
+                batch.add(builder.toWireTransaction().toLedgerTransaction(getServiceHub()));
+            }
+
+            final Map<Integer, Long> fastest = new LinkedHashMap<>();
+            final int cores = Runtime.getRuntime().availableProcessors();
+            final List<Integer> levels = new ArrayList<>();
+            for (int parallelism = 1; parallelism < cores; parallelism *= 2) levels.add(parallelism);
+            levels.add(cores);
+            for (int parallelism : levels) {
+                final ParallelVerifier verifier = new ParallelVerifier(parallelism);
+                long best = Long.MAX_VALUE;
+                for (int round = 0; round < rounds; round++) {
+                    final long start = System.nanoTime();
+                    verifier.verifyAll(batch);
+                    best = Math.min(best, (System.nanoTime() - start) / 1000);
+                }
+                fastest.put(parallelism, best);
+            }
+            return fastest;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        final int batchSize = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        final int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        final MockNetwork net = new MockNetwork();
+        try {
+            final MockNode node = net.createSomeNodes(1).getPartyNodes().get(0);
+            net.runNetwork();
+            final Future<Map<Integer, Long>> future = node.getServices().startFlow(new TimeVerification(batchSize, rounds)).getResultFuture();
+            net.runNetwork();
+            final Map<Integer, Long> fastest = future.get();
+
+            final long serial = fastest.get(1);
+            System.out.println(String.format("Verifying %d todo transactions, fastest of %d rounds:", batchSize, rounds));
+            System.out.println(String.format("%11s %12s %10s %9s", "parallelism", "total ms", "µs / tx", "speed-up"));
+            fastest.forEach((parallelism, micros) -> System.out.println(String.format("%11d %12.2f %10.1f %8.2fx",
+                parallelism, micros / 1000.0, (double) micros / batchSize, (double) serial / micros)));
+        } finally {
+            net.stopNodes();
+        }
+    }
+}
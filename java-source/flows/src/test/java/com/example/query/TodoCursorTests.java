@@ -0,0 +1,65 @@
+package com.example.query;
+
+import org.junit.Test;
+
+import java.time.Instant;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TodoCursorTests {
+    @Test
+    public void roundTripsPosition() {
+        assertEquals(12345L, TodoCursor.decode("export", TodoCursor.encode("export", 12345L)));
+    }
+
+    @Test
+    public void missingCursorStartsFromTheBeginning() {
+        assertEquals(0L, TodoCursor.decode("export", null));
+        assertEquals(0L, TodoCursor.decode("export", ""));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsCursorFromAnotherScope() {
+        TodoCursor.decode("export", TodoCursor.encode("replication", 10L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsGarbage() {
+        TodoCursor.decode("export", "not a cursor!");
+    }
+
+    @Test
+    public void roundTripsKey() {
+        final TodoStatePager.Key key = new TodoStatePager.Key(
+            Instant.parse("2017-06-01T12:00:00.123456789Z"), "8A7F0D2B", 3);
+        assertEquals(key, TodoCursor.decodeKey("export", TodoCursor.encode("export", key)));
+        assertEquals(TodoStatePager.Key.START,
+            TodoCursor.decodeKey("export", TodoCursor.encode("export", TodoStatePager.Key.START)));
+    }
+
+    @Test
+    public void missingKeyCursorStartsFromTheBeginning() {
+        assertEquals(TodoStatePager.Key.START, TodoCursor.decodeKey("export", null));
+        assertEquals(TodoStatePager.Key.START, TodoCursor.decodeKey("export", ""));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAnOffsetWhereAKeyIsExpected() {
+        TodoCursor.decodeKey("export", TodoCursor.encode("export", 500L));
+    }
+
+    @Test
+    public void keysAreOrderedByRecordedTimeThenStateRef() {
+        final Instant now = Instant.parse("2017-06-01T12:00:00Z");
+        final TodoStatePager.Key key = new TodoStatePager.Key(now, "B", 1);
+        assertTrue(new TodoStatePager.Key(now, "B", 2).isAfter(key));
+        assertTrue(new TodoStatePager.Key(now, "C", 0).isAfter(key));
+        assertTrue(new TodoStatePager.Key(now.plusNanos(1), "A", 0).isAfter(key));
+        assertFalse(new TodoStatePager.Key(now, "B", 1).isAfter(key));
+        assertFalse(new TodoStatePager.Key(now, "A", 9).isAfter(key));
+        assertTrue(key.isAfter(TodoStatePager.Key.START));
+        assertFalse(TodoStatePager.Key.START.isAfter(key));
+    }
+}
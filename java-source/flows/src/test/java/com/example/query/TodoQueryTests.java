@@ -0,0 +1,80 @@
+package com.example.query;
+
+import com.example.model.TodoItem;
+import com.example.state.TodoState;
+import net.corda.core.node.services.vault.Sort;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static net.corda.core.node.services.vault.QueryCriteriaUtilsKt.DEFAULT_PAGE_NUM;
+import static org.junit.Assert.assertTrue;
+
+public class TodoQueryTests {
+    private static TodoQuery titled(String titlePrefix) {
+        return new TodoQuery(null, null, null, titlePrefix, null, null, null, null, null, 1, 10);
+    }
+
+    private static TodoState todo(String title) {
+        return new TodoState(new TodoItem(title, "description", false), null, null);
+    }
+
+    @Test
+    public void explainsEveryCriterionAsPushedDown() {
+        TodoQuery query = new TodoQuery(new X500Name("CN=NodeA,O=NodeA,L=London,C=UK"), null, false, "Buy",
+            Instant.parse("2017-07-01T00:00:00Z"), null, null, TodoQuery.SortField.TITLE, Sort.Direction.DESC, 2, 25);
+        assertEquals(Arrays.asList(
+            "pushed down: todo_states rows only",
+            "pushed down: unconsumed todos only",
+            "pushed down: owner_name = 'CN=NodeA,O=NodeA,L=London,C=UK'",
+            "pushed down: complete = false",
+            "pushed down: title LIKE 'Buy%'",
+            "pushed down: created_time >= 2017-07-01T00:00:00Z",
+            "pushed down: ORDER BY title DESC, state ref",
+            "pushed down: page 2 of size 25"), query.explain());
+        assertTrue(query.matches(todo("Buy milk")));
+    }
+
+    @Test
+    public void archivedQueriesOnlyMatchCompletedTodos() {
+        TodoQuery query = new TodoQuery(null, null, false, null, null, null, null,
+            TodoQuery.SortField.COMPLETED, Sort.Direction.DESC, 1, 10).archived();
+        assertTrue(query.explain().contains("pushed down: archived todos only"));
+        assertTrue(query.explain().contains("pushed down: complete = true"));
+        assertTrue(query.explain().contains("pushed down: ORDER BY completed DESC, state ref"));
+    }
+
+    @Test
+    public void checksTheTitlePrefixInMemoryFromTheFirstWildcard() {
+        TodoQuery query = titled("50% off");
+        assertTrue(query.explain().contains("pushed down: title LIKE '50%'"));
+        assertTrue(query.explain().contains("in memory: title starts with '50% off'"));
+        assertTrue(query.matches(todo("50% off shoes")));
+        assertFalse(query.matches(todo("500 offers")));
+
+        assertFalse(titled("_x").explain().stream().anyMatch(step -> step.contains("LIKE")));
+    }
+
+    @Test
+    public void firstPageIsTheVaultsFirstPage() {
+        assertEquals(DEFAULT_PAGE_NUM, titled(null).paging().getPageNumber());
+        TodoQuery third = new TodoQuery(null, null, null, null, null, null, null, null, null, 3, 10);
+        assertEquals(DEFAULT_PAGE_NUM + 2, third.paging().getPageNumber());
+        assertEquals(10, third.paging().getPageSize());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAnEmptyCreatedRange() {
+        Instant now = Instant.now();
+        new TodoQuery(null, null, null, null, now, now, null, null, null, 1, 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsOversizedPages() {
+        new TodoQuery(null, null, null, null, null, null, null, null, null, 1, TodoQuery.MAX_PAGE_SIZE + 1);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.api;
+
+/**
+ * Thrown by [FlowAdmissionController] when a flow cannot be started because the node is already at capacity.
+ */
+public class AdmissionRejectedException extends Exception {
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /** How long the client should wait before retrying, for the Retry-After header. */
+    public long getRetryAfterSeconds() { return retryAfterSeconds; }
+}
@@ -0,0 +1,98 @@
+package com.example.api;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 style CSV support for the todo import and export endpoints.
+ *
+ * Records are read one at a time so that arbitrarily large uploads never need to be held in memory. Quoted fields may
+ * contain commas, escaped quotes ("") and line breaks.
+ */
+public final class Csv {
+    private Csv() {}
+
+    /**
+     * Reads CSV records from an underlying [BufferedReader], one record per call to [next].
+     */
+    public static class Reader {
+        private final BufferedReader in;
+        private long lineNumber = 0;
+
+        public Reader(BufferedReader in) {
+            this.in = in;
+        }
+
+        /** The number of physical lines consumed so far. */
+        public long getLineNumber() { return lineNumber; }
+
+        /**
+         * Returns the fields of the next record, or null at the end of the input. Blank lines are skipped.
+         */
+        public List<String> next() throws IOException {
+            String line;
+            do {
+                line = in.readLine();
+                if (line == null) return null;
+                lineNumber++;
+            } while (line.isEmpty());
+
+            final List<String> fields = new ArrayList<>();
+            final StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i == line.length()) {
+                    if (!quoted) break;
+                    // A quoted field continues onto the next physical line.
+                    line = in.readLine();
+                    if (line == null) throw new IOException("Unterminated quoted field at line " + lineNumber);
+                    lineNumber++;
+                    field.append('\n');
+                    i = 0;
+                    continue;
+                }
+                final char c = line.charAt(i++);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    /**
+     * Formats the given values as a single CSV record, quoting only where required. Null values become empty fields.
+     */
+    public static String format(Object... values) {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) sb.append(',');
+            if (values[i] == null) continue;
+            final String value = values[i].toString();
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                sb.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else {
+                sb.append(value);
+            }
+        }
+        return sb.toString();
+    }
+}
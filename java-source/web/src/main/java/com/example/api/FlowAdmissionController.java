@@ -0,0 +1,102 @@
+package com.example.api;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits how many flows the web layer has running on the node at once.
+ *
+ * Up to [maxConcurrent] flows run; up to [maxQueued] further requests wait, each for at most [queueTimeoutMillis],
+ * for one of them to finish. Anything beyond that is rejected straight away with an [AdmissionRejectedException] so
+ * that the caller can answer 429 and the node keeps running at its most efficient concurrency rather than thrashing.
+ */
+public class FlowAdmissionController {
+    /** Returned by a successful admission; must be released exactly once when the flow finishes. */
+    public interface Permit {
+        void release();
+    }
+
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long queueTimeoutMillis;
+    private final long retryAfterSeconds;
+    private final Semaphore running;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejectedQueueFull = new AtomicLong();
+    private final AtomicLong rejectedTimeout = new AtomicLong();
+
+    public FlowAdmissionController(int maxConcurrent, int maxQueued, long queueTimeoutMillis, long retryAfterSeconds) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.queueTimeoutMillis = queueTimeoutMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.running = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Admits a flow, waiting in the queue if every slot is busy.
+     *
+     * @throws AdmissionRejectedException if the queue is full or the wait times out.
+     */
+    public Permit admit() throws AdmissionRejectedException {
+        if (!running.tryAcquire()) {
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                rejectedQueueFull.incrementAndGet();
+                throw new AdmissionRejectedException("Too many flows are queued; try again later.", retryAfterSeconds);
+            }
+            try {
+                if (!running.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    rejectedTimeout.incrementAndGet();
+                    throw new AdmissionRejectedException("Timed out waiting to start a flow; try again later.", retryAfterSeconds);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new AdmissionRejectedException("Interrupted waiting to start a flow.", retryAfterSeconds);
+            } finally {
+                queued.decrementAndGet();
+            }
+        }
+        return grant();
+    }
+
+    /**
+     * Admits a flow, waiting for as long as it takes. Used by bulk work such as imports, which apply their own
+     * backpressure and have no client waiting to be told to retry.
+     */
+    public Permit admitWhenAvailable() throws InterruptedException {
+        running.acquire();
+        return grant();
+    }
+
+    private Permit grant() {
+        admitted.incrementAndGet();
+        return new Permit() {
+            private boolean released = false;
+
+            @Override
+            public synchronized void release() {
+                if (released) return;
+                released = true;
+                running.release();
+            }
+        };
+    }
+
+    public Map<String, Object> snapshot() {
+        final Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxConcurrent", maxConcurrent);
+        stats.put("running", maxConcurrent - running.availablePermits());
+        stats.put("maxQueued", maxQueued);
+        stats.put("queued", queued.get());
+        stats.put("admitted", admitted.get());
+        stats.put("rejectedQueueFull", rejectedQueueFull.get());
+        stats.put("rejectedTimeout", rejectedTimeout.get());
+        return stats;
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.api;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Remembers which flow each client-supplied Idempotency-Key started, so that a retried request attaches to the
+ * original flow, or gets its result, instead of starting a duplicate.
+ *
+ * Entries expire after [ttlMillis] and at most [maxEntries] completed entries are kept. Entries whose flow is still
+ * running are never evicted. Only successful results are remembered: if the flow fails, the key is released so a
+ * retry can try again. When a journal file is configured, completed results are appended to it and reloaded on
+ * start, so retries that span a web server restart are also deduplicated. The journal is compacted to the keys still
+ * held on start and whenever it grows to [COMPACT_FACTOR] times [maxEntries] lines.
+ */
+public class IdempotencyCache {
+    static private final Logger logger = LoggerFactory.getLogger(IdempotencyCache.class);
+    static final int COMPACT_FACTOR = 2;
+
+    /** A key's flow, identified by a fingerprint of the request that started it. */
+    public static class Entry {
+        private final String fingerprint;
+        private final CompletableFuture<String> txId;
+        private final long createdAt;
+
+        Entry(String fingerprint, CompletableFuture<String> txId, long createdAt) {
+            this.fingerprint = fingerprint;
+            this.txId = txId;
+            this.createdAt = createdAt;
+        }
+
+        public String getFingerprint() { return fingerprint; }
+
+        /** Completes with the id of the transaction the flow committed. */
+        public CompletableFuture<String> getTxId() { return txId; }
+    }
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Path journal;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    private BufferedWriter journalWriter;
+    private long journalLines;
+
+    public IdempotencyCache(int maxEntries, long ttlMillis, Path journal) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.journal = journal;
+        if (journal != null) {
+            try {
+                load();
+                compact();
+            } catch (IOException ex) {
+                logger.error("Unable to open idempotency journal {}; keys will not survive a restart", journal, ex);
+            }
+        }
+    }
+
+    /**
+     * Returns the existing entry for [key], or registers a new in-flight entry and returns null, in which case the
+     * caller must start the flow and then call [complete] or [release].
+     */
+    public synchronized Entry claim(String key, String fingerprint) {
+        final long now = System.currentTimeMillis();
+        expire(now);
+        final Entry existing = entries.get(key);
+        if (existing != null) return existing;
+        entries.put(key, new Entry(fingerprint, new CompletableFuture<>(), now));
+        evict();
+        return null;
+    }
+
+    /** Records the transaction committed by the flow for [key]. */
+    public void complete(String key, String txId) {
+        final Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry == null) return;
+            append(key, entry.fingerprint, txId, entry.createdAt);
+        }
+        entry.txId.complete(txId);
+    }
+
+    /** Forgets [key] after its flow failed or was never started, passing the failure on to any attached retries. */
+    public void release(String key, Throwable cause) {
+        final Entry entry;
+        synchronized (this) {
+            entry = entries.remove(key);
+        }
+        if (entry != null) entry.txId.completeExceptionally(cause);
+    }
+
+    public synchronized int size() { return entries.size(); }
+
+    private void expire(long now) {
+        final Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            final Entry entry = it.next();
+            if (now - entry.createdAt < ttlMillis) break;
+            if (entry.txId.isDone()) it.remove();
+        }
+    }
+
+    private void evict() {
+        final Iterator<Entry> it = entries.values().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            if (it.next().txId.isDone()) it.remove();
+        }
+    }
+
+    private void append(String key, String fingerprint, String txId, long createdAt) {
+        if (journalWriter == null) return;
+        try {
+            if (journalLines >= (long) COMPACT_FACTOR * maxEntries) {
+                try {
+                    compact();
+                } catch (IOException ex) {
+                    logger.warn("Unable to compact idempotency journal {}: {}", journal, ex.getMessage());
+                }
+            }
+            journalWriter.write(String.join("\t", escape(key), escape(fingerprint), txId, Long.toString(createdAt)));
+            journalWriter.newLine();
+            journalWriter.flush();
+            journalLines++;
+        } catch (IOException ex) {
+            logger.warn("Unable to journal idempotency key {}: {}", key, ex.getMessage());
+        }
+    }
+
+    /** Reloads unexpired keys from the journal. */
+    private void load() throws IOException {
+        if (!Files.exists(journal)) return;
+        final long now = System.currentTimeMillis();
+        final List<String> lines = Files.readAllLines(journal, StandardCharsets.UTF_8);
+        for (String line : lines) {
+            final String[] parts = line.split("\t");
+            if (parts.length != 4) continue;
+            final long createdAt = Long.parseLong(parts[3]);
+            if (now - createdAt >= ttlMillis) continue;
+            entries.put(unescape(parts[0]),
+                new Entry(unescape(parts[1]), CompletableFuture.completedFuture(parts[2]), createdAt));
+        }
+        evict();
+        logger.info("Loaded {} idempotency keys from {}", entries.size(), journal);
+    }
+
+    /**
+     * Rewrites the journal with only the unexpired, completed keys still held, and reopens it for appending. Until the
+     * new journal has replaced the old one, the old one stays open, so a failure leaves journalling as it was.
+     */
+    private void compact() throws IOException {
+        expire(System.currentTimeMillis());
+        final Path tmp = journal.resolveSibling(journal.getFileName() + ".tmp");
+        long lines = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                final Entry entry = e.getValue();
+                // Entries still in flight are journalled when they complete.
+                if (!entry.txId.isDone()) continue;
+                writer.write(String.join("\t", escape(e.getKey()), escape(entry.fingerprint),
+                    entry.txId.join(), Long.toString(entry.createdAt)));
+                writer.newLine();
+                lines++;
+            }
+        }
+        Files.move(tmp, journal, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (journalWriter != null) journalWriter.close();
+        journalWriter = Files.newBufferedWriter(journal, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        journalLines = lines;
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n");
+    }
+
+    private static String unescape(String value) {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                final char next = value.charAt(++i);
+                sb.append(next == 't' ? '\t' : next == 'n' ? '\n' : next);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.api;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Times the web server's calls to the node, by name, so that their latency can be watched from /metrics: vault reads,
+ * to see the effect of archiving, indexes and paging, and flows, to see the cost of progress tracking.
+ *
+ * Each name keeps its last [window] timings; percentiles are over those, so they follow recent behaviour rather than
+ * being dominated by the server's whole history.
+ */
+public class LatencyStats {
+    private static class Timings {
+        final long[] micros;
+        int next = 0;
+        long count = 0;
+        long lastResults = 0;
+
+        Timings(int window) {
+            this.micros = new long[window];
+        }
+
+        synchronized void record(long elapsedMicros, long results) {
+            micros[next] = elapsedMicros;
+            next = (next + 1) % micros.length;
+            count++;
+            lastResults = results;
+        }
+
+        synchronized Map<String, Object> snapshot() {
+            final long[] sorted = Arrays.copyOf(micros, (int) Math.min(count, micros.length));
+            Arrays.sort(sorted);
+            final Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", count);
+            stats.put("lastResults", lastResults);
+            stats.put("p50Micros", percentile(sorted, 50));
+            stats.put("p95Micros", percentile(sorted, 95));
+            stats.put("p99Micros", percentile(sorted, 99));
+            stats.put("maxMicros", sorted.length == 0 ? 0 : sorted[sorted.length - 1]);
+            return stats;
+        }
+
+        private static long percentile(long[] sorted, int percent) {
+            if (sorted.length == 0) return 0;
+            return sorted[(int) Math.ceil(percent / 100.0 * sorted.length) - 1];
+        }
+    }
+
+    /** Reports how many results a call produced, for the lastResults statistic: rows for a read, for example. */
+    public interface Counter<T> {
+        long count(T result);
+    }
+
+    private final int window;
+    private final Map<String, Timings> timings = new ConcurrentHashMap<>();
+
+    public LatencyStats(int window) {
+        if (window < 1) throw new IllegalArgumentException("window must be at least 1.");
+        this.window = window;
+    }
+
+    /** Runs [load], recording how long it took under [name]. Failed loads are not recorded. */
+    public <T> T time(String name, Counter<T> counter, Supplier<T> load) {
+        final long start = System.nanoTime();
+        final T result = load.get();
+        record(name, (System.nanoTime() - start) / 1000, counter.count(result));
+        return result;
+    }
+
+    public void record(String name, long elapsedMicros, long results) {
+        timings.computeIfAbsent(name, n -> new Timings(window)).record(elapsedMicros, results);
+    }
+
+    public Map<String, Object> snapshot() {
+        final Map<String, Object> stats = new LinkedHashMap<>();
+        timings.keySet().stream().sorted().forEach(name -> stats.put(name, timings.get(name).snapshot()));
+        return stats;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.api;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Lets concurrent identical read queries share one in-flight RPC.
+ *
+ * The first caller for a query runs it; anyone asking for the same query while it is running waits for that result
+ * instead of sending their own. With a non-zero [ttlMillis] a finished result is also handed out for that long
+ * afterwards, which flattens bursts such as many users loading the page at once without holding a long-lived cache.
+ *
+ * Every write made through the web server calls [invalidate] once it has finished. That starts a new generation, and
+ * a query is only ever shared within a generation, so a request that starts after a write has returned never sees a
+ * result read before it. Writes made by other nodes are seen once the current flight or [ttlMillis] is over.
+ */
+public class QueryCoalescer {
+    private static class Flight {
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        volatile long finishedAt = 0;
+
+        boolean isShareable(long now, long ttlMillis) {
+            return !result.isDone() || (!result.isCompletedExceptionally() && now - finishedAt < ttlMillis);
+        }
+    }
+
+    private final long ttlMillis;
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+
+    public QueryCoalescer(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Returns the result of [load], shared with every concurrent caller that passes the same [query]. [query] must
+     * identify everything that affects the result, and the result must not be modified by callers.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String query, Supplier<T> load) {
+        final String key = generation.get() + ":" + query;
+        final long now = System.currentTimeMillis();
+        final Flight[] started = new Flight[1];
+        final Flight flight = flights.compute(key, (k, current) -> {
+            if (current != null && current.isShareable(now, ttlMillis)) return current;
+            return started[0] = new Flight();
+        });
+
+        if (flight == started[0]) {
+            executed.incrementAndGet();
+            run(key, flight, load);
+        } else if (flight.result.isDone()) {
+            reused.incrementAndGet();
+        } else {
+            coalesced.incrementAndGet();
+        }
+        return (T) await(flight);
+    }
+
+    /** Called after every write, so that later queries are not answered from reads made before it. */
+    public void invalidate() {
+        generation.incrementAndGet();
+        flights.clear();
+    }
+
+    public Map<String, Object> snapshot() {
+        final Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ttlMillis", ttlMillis);
+        stats.put("generation", generation.get());
+        stats.put("queries", flights.size());
+        stats.put("executed", executed.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("reused", reused.get());
+        return stats;
+    }
+
+    private void run(String key, Flight flight, Supplier<?> load) {
+        try {
+            final Object value = load.get();
+            flight.finishedAt = System.currentTimeMillis();
+            flight.result.complete(value);
+        } catch (Throwable ex) {
+            flight.finishedAt = System.currentTimeMillis();
+            flight.result.completeExceptionally(ex);
+        }
+        // Failures are never reused, and without a TTL neither are results; drop them so the map stays small.
+        if (ttlMillis <= 0 || flight.result.isCompletedExceptionally()) {
+            flights.remove(key, flight);
+        } else {
+            flights.entrySet().removeIf(entry -> !entry.getValue().isShareable(System.currentTimeMillis(), ttlMillis));
+        }
+    }
+
+    private static Object await(Flight flight) {
+        try {
+            return flight.result.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for a shared query.", ex);
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.api;
+
+import com.example.events.TodoEvents;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.PreMatching;
+
+/**
+ * Records every request to the web APIs as a [TodoEvents.httpRequest] Flight Recorder event, from before it is
+ * matched to a resource, so that unknown paths are timed too, until its response is handed back to the web server.
+ * The body of a streamed response, such as /export, is written after that and is not included.
+ */
+@PreMatching
+public class RequestEvents implements ContainerRequestFilter, ContainerResponseFilter {
+    static private final String EVENT = RequestEvents.class.getName();
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        if (!TodoEvents.AVAILABLE) return;
+        request.setProperty(EVENT, TodoEvents.httpRequest(request.getMethod(), request.getUriInfo().getPath()));
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        final Object event = request.getProperty(EVENT);
+        if (event instanceof TodoEvents.HttpRequest) ((TodoEvents.HttpRequest) event).end(response.getStatus());
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.api;
+
+import com.google.common.net.HostAndPort;
+import net.corda.client.rpc.CordaRPCClient;
+import net.corda.client.rpc.CordaRPCClientConfiguration;
+import net.corda.client.rpc.CordaRPCConnection;
+import net.corda.client.rpc.RPCException;
+import com.example.events.TodoEvents;
+import net.corda.core.messaging.CordaRPCOps;
+import net.corda.core.node.services.Vault;
+import org.apache.activemq.artemis.api.core.ActiveMQException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A fixed-size pool of RPC connections to the node.
+ *
+ * The web server hands every API a single shared [CordaRPCOps], so all HTTP threads would otherwise queue behind one
+ * connection. [asRPCOps] returns a [CordaRPCOps] that sends each call down whichever healthy connection has the
+ * fewest calls in flight. A call that fails with a transport error marks its connection unhealthy. A background
+ * health check pings every connection and reconnects any that are down. While no pooled connection is healthy, calls
+ * fall back to the web server's own proxy.
+ *
+ * Every call is recorded as a [TodoEvents.rpcCall] Flight Recorder event, and vault reads as a
+ * [TodoEvents.vaultQuery] as well, with the number of states they returned.
+ */
+public class RpcConnectionPool implements AutoCloseable {
+    static private final Logger logger = LoggerFactory.getLogger(RpcConnectionPool.class);
+
+    private class Member {
+        final int index;
+        final AtomicInteger inFlight = new AtomicInteger();
+        volatile CordaRPCConnection connection;
+        volatile boolean healthy;
+
+        Member(int index) {
+            this.index = index;
+        }
+
+        synchronized void connect() {
+            disconnect();
+            try {
+                connection = client.start(user, password);
+                healthy = true;
+                logger.info("RPC pool connection {} established", index);
+            } catch (RuntimeException ex) {
+                logger.warn("RPC pool connection {} failed to connect: {}", index, ex.getMessage());
+            }
+        }
+
+        synchronized void disconnect() {
+            healthy = false;
+            if (connection != null) {
+                try {
+                    connection.forceClose();
+                } catch (RuntimeException ex) {
+                    logger.debug("Error closing RPC pool connection {}", index, ex);
+                }
+                connection = null;
+            }
+        }
+    }
+
+    private final CordaRPCOps fallback;
+    private final CordaRPCClient client;
+    private final String user;
+    private final String password;
+    private final List<Member> members = new ArrayList<>();
+    private final ScheduledExecutorService healthChecker;
+    private final CordaRPCOps pooledOps;
+
+    /**
+     * @param fallback the web server's own proxy, used when the pool is empty or entirely unhealthy.
+     * @param size the number of pooled connections; zero disables pooling.
+     */
+    public RpcConnectionPool(CordaRPCOps fallback, int size, String address, String user, String password,
+                             long healthCheckSeconds) {
+        this.fallback = fallback;
+        this.user = user;
+        this.password = password;
+        this.client = size > 0
+            ? new CordaRPCClient(HostAndPort.fromString(address), null, CordaRPCClientConfiguration.getDefault())
+            : null;
+        for (int i = 0; i < size; i++) {
+            final Member member = new Member(i);
+            member.connect();
+            members.add(member);
+        }
+        if (size > 0) {
+            healthChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+                final Thread thread = new Thread(r, "rpc-pool-health");
+                thread.setDaemon(true);
+                return thread;
+            });
+            healthChecker.scheduleWithFixedDelay(this::checkHealth, healthCheckSeconds, healthCheckSeconds, TimeUnit.SECONDS);
+        } else {
+            healthChecker = null;
+        }
+        this.pooledOps = (CordaRPCOps) Proxy.newProxyInstance(
+            CordaRPCOps.class.getClassLoader(), new Class<?>[] { CordaRPCOps.class }, (proxy, method, args) -> invoke(method, args));
+    }
+
+    /** A [CordaRPCOps] whose calls are spread across the pool. */
+    public CordaRPCOps asRPCOps() { return pooledOps; }
+
+    /** Per-connection health and load, for the metrics endpoint. */
+    public Map<String, Object> snapshot() {
+        final List<Map<String, Object>> connections = new ArrayList<>();
+        for (Member member : members) {
+            final Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("healthy", member.healthy);
+            stats.put("inFlight", member.inFlight.get());
+            connections.add(stats);
+        }
+        return Collections.singletonMap("connections", connections);
+    }
+
+    private Object invoke(Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return method.invoke(fallback, args);
+        }
+        final Member member = leastLoaded();
+        final CordaRPCConnection connection = member == null ? null : member.connection;
+        if (connection == null) {
+            return unwrap(method, fallback, args, -1);
+        }
+        member.inFlight.incrementAndGet();
+        try {
+            return unwrap(method, connection.getProxy(), args, member.index);
+        } catch (RPCException | ActiveMQException ex) {
+            logger.warn("RPC pool connection {} failed, taking it out of rotation: {}", member.index, ex.getMessage());
+            member.healthy = false;
+            throw ex;
+        } finally {
+            member.inFlight.decrementAndGet();
+        }
+    }
+
+    private static Object unwrap(Method method, CordaRPCOps target, Object[] args, int connection) throws Throwable {
+        final TodoEvents.RpcCall call = TodoEvents.rpcCall(method.getName(), connection);
+        final TodoEvents.VaultQuery query = method.getReturnType() == Vault.Page.class
+            ? TodoEvents.vaultQuery("rpc", stateType(args))
+            : TodoEvents.VaultQuery.NONE;
+        boolean failed = true;
+        try {
+            final Object result = method.invoke(target, args);
+            final Vault.Page<?> page = result instanceof Vault.Page ? (Vault.Page<?>) result : null;
+            if (page != null) query.end(page.getStates().size(), page.getTotalStatesAvailable());
+            failed = false;
+            return result;
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        } finally {
+            call.end(failed);
+        }
+    }
+
+    /** The contract state type a vault query asks for: its only [Class] argument, first or last by overload. */
+    private static Class<?> stateType(Object[] args) {
+        if (args == null) return null;
+        for (Object arg : args) {
+            if (arg instanceof Class) return (Class<?>) arg;
+        }
+        return null;
+    }
+
+    private Member leastLoaded() {
+        Member best = null;
+        for (Member member : members) {
+            if (member.healthy && (best == null || member.inFlight.get() < best.inFlight.get())) {
+                best = member;
+            }
+        }
+        return best;
+    }
+
+    private void checkHealth() {
+        for (Member member : members) {
+            if (member.healthy) {
+                try {
+                    member.connection.getProxy().currentNodeTime();
+                    continue;
+                } catch (RuntimeException ex) {
+                    logger.warn("RPC pool connection {} failed its health check: {}", member.index, ex.getMessage());
+                }
+            }
+            member.connect();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (healthChecker != null) healthChecker.shutdownNow();
+        members.forEach(Member::disconnect);
+    }
+}
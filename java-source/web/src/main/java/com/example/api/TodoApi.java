@@ -0,0 +1,832 @@
+package com.example.api;
+
+import com.example.flow.ExampleFlow;
+import com.example.flow.TodoArchiveFlow;
+import com.example.flow.TodoBroadcastFlow;
+import com.example.flow.TodoCompleteFlow;
+import com.example.flow.TodoCreateFlow;
+import com.example.flow.TodoRebalanceFlow;
+import com.example.flow.TodoWarmupFlow;
+import com.example.query.TodoCursor;
+import com.example.query.TodoQuery;
+import com.example.query.TodoStatePager;
+import com.example.state.IOUState;
+import com.example.state.TodoState;
+import com.google.common.collect.ImmutableMap;
+import kotlin.Pair;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.contracts.UniqueIdentifier;
+import net.corda.core.identity.Party;
+import net.corda.core.flows.FlowLogic;
+import net.corda.core.messaging.CordaRPCOps;
+import net.corda.core.messaging.FlowHandle;
+import net.corda.core.messaging.FlowProgressHandle;
+import net.corda.core.node.NodeInfo;
+import net.corda.core.node.services.NetworkMapCache;
+import net.corda.core.node.services.Vault;
+import net.corda.core.node.services.vault.QueryCriteria;
+import net.corda.core.node.services.vault.Sort;
+import net.corda.core.transactions.SignedTransaction;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import rx.Observable;
+
+import javax.ws.rs.*;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.InputStream;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+import static net.corda.client.rpc.UtilsKt.notUsed;
+
+/**
+ * Created by varunmathur on 02/07/2017.
+ */
+@Path("todo")
+public class TodoApi {
+    private final RpcConnectionPool rpcPool;
+    private final CordaRPCOps services;
+    private final X500Name myLegalName;
+    private final FlowAdmissionController admission;
+    private final IdempotencyCache idempotency;
+    private final TodoImporter importer;
+    private final TodoExporter exporter;
+    private final TodoStatePager pager;
+    private final TodoChangeLog changeLog;
+    private final QueryCoalescer queries;
+    private final TodoLocks locks;
+    private final LatencyStats queryLatencies;
+    private final LatencyStats flowLatencies;
+    private final boolean trackByDefault;
+    private final Map<String, Object> warmup;
+
+    static private final Logger logger = LoggerFactory.getLogger(ExampleApi.class);
+    // JAX-RS 2.0 predates Response.Status.TOO_MANY_REQUESTS.
+    static private final int TOO_MANY_REQUESTS = 429;
+    static private final int UNPROCESSABLE_ENTITY = 422;
+    static private final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    public TodoApi(CordaRPCOps services) {
+        this(services, TodoApiConfig.fromSystemProperties());
+    }
+
+    public TodoApi(CordaRPCOps services, TodoApiConfig config) {
+        this.rpcPool = new RpcConnectionPool(services, config.rpcPoolSize, config.rpcAddress, config.rpcUser,
+            config.rpcPassword, config.rpcHealthCheckSeconds);
+        this.services = rpcPool.asRPCOps();
+        this.myLegalName = services.nodeIdentity().getLegalIdentity().getName();
+        this.admission = new FlowAdmissionController(config.flowMaxConcurrent, config.flowMaxQueued,
+            config.flowQueueTimeoutMillis, config.flowRetryAfterSeconds);
+        this.idempotency = new IdempotencyCache(config.idempotencyMaxKeys, config.idempotencyTtlSeconds * 1000,
+            config.idempotencyJournal == null ? null : Paths.get(config.idempotencyJournal));
+        this.queries = new QueryCoalescer(config.queryCoalesceTtlMillis);
+        this.locks = new TodoLocks(config.mutationLockWaitMillis);
+        this.queryLatencies = new LatencyStats(config.latencyWindow);
+        this.flowLatencies = new LatencyStats(config.latencyWindow);
+        this.trackByDefault = config.flowTrackProgress;
+        this.importer = new TodoImporter(this.services, admission, queries, config.importMaxInFlight,
+            config.importProgressInterval);
+        this.pager = new TodoStatePager(this.services, TodoStatePager.DEFAULT_PAGE_SIZE);
+        this.exporter = new TodoExporter(pager);
+        this.changeLog = new TodoChangeLog(this.services, pager, config.changeLogMaxEntries,
+            config.changeLogRetentionSeconds * 1000);
+        this.warmup = warmUp(config.warmupIterations);
+    }
+
+    /**
+     * Runs [TodoWarmupFlow] on the node and waits for it, so that the first real requests after a restart do not pay
+     * for class loading and JIT. The web server only starts serving once every web API has been constructed, so this
+     * happens before any traffic arrives. A failed warm-up is logged and otherwise ignored.
+     */
+    private Map<String, Object> warmUp(int iterations) {
+        final Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("iterations", iterations);
+        if (iterations <= 0) return stats;
+
+        final long start = System.nanoTime();
+        try {
+            final List<Long> timings = services
+                .startFlowDynamic(TodoWarmupFlow.class, iterations)
+                .getReturnValue()
+                .get();
+            stats.put("totalMillis", (System.nanoTime() - start) / 1000000);
+            stats.put("firstIterationMicros", timings.get(0));
+            stats.put("lastIterationMicros", timings.get(timings.size() - 1));
+            logger.info("Warmed up the todo flows in {} ms ({} iterations, first {} us, last {} us)",
+                stats.get("totalMillis"), iterations, timings.get(0), timings.get(timings.size() - 1));
+        } catch (Throwable ex) {
+            stats.put("error", ex.getMessage());
+            logger.warn("Warm-up failed, continuing without it: {}", ex.getMessage(), ex);
+        }
+        return stats;
+    }
+
+    /**
+     * Returns the node's name.
+     */
+    @GET
+    @Path("me")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Map<String, X500Name> whoami() { return ImmutableMap.of("me", myLegalName); }
+
+    /**
+     * Returns all parties registered with the [NetworkMapService]. These names can be used to look up identities
+     * using the [IdentityService].
+     */
+    @GET
+    @Path("peers")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Map<String, List<X500Name>> getPeers() {
+        Pair<List<NodeInfo>, Observable<NetworkMapCache.MapChange>> nodeInfo = services.networkMapUpdates();
+        notUsed(nodeInfo.getSecond());
+        return ImmutableMap.of(
+            "peers",
+            nodeInfo.getFirst()
+                .stream()
+                .filter(node -> !isNotary(node))
+                .map(node -> node.getLegalIdentity().getName())
+                .filter(name -> !name.equals(myLegalName))
+                .collect(toList()));
+    }
+
+    /** Todos are sharded across every notary on the network, so none of them can be offered as an assignee. */
+    private static boolean isNotary(NodeInfo node) {
+        return node.getAdvertisedServices().stream().anyMatch(service -> service.getInfo().getType().isNotary());
+    }
+
+    /**
+     * Returns operational statistics for the web layer.
+     */
+    @GET
+    @Path("metrics")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Map<String, Object> getMetrics() {
+        return ImmutableMap.<String, Object>builder()
+            .put("rpcPool", rpcPool.snapshot())
+            .put("flowAdmission", admission.snapshot())
+            .put("idempotencyKeys", idempotency.size())
+            .put("changeLog", changeLog.snapshot())
+            .put("queryCoalescing", queries.snapshot())
+            .put("queryLatency", queryLatencies.snapshot())
+            .put("flowLatency", flowLatencies.snapshot())
+            .put("mutationLocks", locks.snapshot())
+            .put("warmup", warmup)
+            .build();
+    }
+
+    @GET
+    @Path("todos")
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<StateAndRef<TodoState>> getTodos() {
+        return allTodos();
+    }
+
+    /** Every unconsumed todo. The my-* views all filter this one query, so concurrent page loads share a single RPC. */
+    private List<StateAndRef<TodoState>> allTodos() {
+        return queries.get("vaultQuery(TodoState)", this::unconsumedTodos);
+    }
+
+    private List<StateAndRef<TodoState>> unconsumedTodos() {
+        return queryLatencies.time("vaultQuery(TodoState)", List::size, () -> services.vaultQuery(TodoState.class).getStates());
+    }
+
+    /**
+     * Returns the todo states produced and consumed since the cursor passed as since, and a cursor to pass next
+     * time.
+     *
+     * Without a cursor, or with one that has fallen out of the change log's retention window, the response is a
+     * reset: a snapshot of all unconsumed todos that replaces whatever the client holds.
+     */
+    @GET
+    @Path("changes")
+    @Produces(MediaType.APPLICATION_JSON)
+    public TodoChangeLog.Changes getChanges(@QueryParam("since") String since) {
+        return since == null || since.isEmpty() ? snapshot() : changeLog.since(since);
+    }
+
+    /** A full snapshot with its cursor. Clients without a cursor, typically fresh page loads, share one read. */
+    private TodoChangeLog.Changes snapshot() {
+        return queries.get("changes()", () ->
+            queryLatencies.time("changes()", changes -> changes.getSnapshot().size(), () -> changeLog.since(null)));
+    }
+
+    @GET
+    @Path("my-todos")
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<StateAndRef<TodoState>> getMyTodos() {
+        List<StateAndRef<TodoState>> allTodos = allTodos();
+        List<StateAndRef<TodoState>> filtered = new ArrayList<>();
+        for (StateAndRef<TodoState> todo : allTodos){
+            TodoState state = todo.getState().getData();
+            if(isMyTodo(state))
+                filtered.add(todo);
+        }
+        return filtered;
+    }
+
+    @GET
+    @Path("my-owned-todos")
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<StateAndRef<TodoState>> getMyOwnedTodos() {
+        List<StateAndRef<TodoState>> allTodos = allTodos();
+        List<StateAndRef<TodoState>> filtered = new ArrayList<>();
+        for (StateAndRef<TodoState> todo : allTodos){
+            TodoState state = todo.getState().getData();
+            if(isMyOwnedTodo(state))
+                filtered.add(todo);
+        }
+        return filtered;
+    }
+
+    @GET
+    @Path("my-completed-todos")
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<StateAndRef<TodoState>> getMyCompletedTodos() {
+        List<StateAndRef<TodoState>> allTodos = allTodos();
+        List<StateAndRef<TodoState>> filtered = new ArrayList<>();
+        for (StateAndRef<TodoState> todo : allTodos){
+            TodoState state = todo.getState().getData();
+            if(isMyCompletedTodo(state))
+                filtered.add(todo);
+        }
+        return filtered;
+    }
+
+    private boolean isMyTodo(TodoState state) {
+        return state.getAssignee().getName().equals(myLegalName) && !state.getTodoItem().isComplete();
+    }
+
+    private boolean isMyOwnedTodo(TodoState state) {
+        return state.getOwner().getName().equals(myLegalName);
+    }
+
+    private boolean isMyCompletedTodo(TodoState state) {
+        return state.getAssignee().getName().equals(myLegalName) && state.getTodoItem().isComplete();
+    }
+
+    /**
+     * Returns everything the todo page needs in one round trip: this node's name, its peers, the my-todos,
+     * my-owned-todos and my-completed-todos views with their counts, and a cursor for /changes.
+     *
+     * The vault is read once and each todo is sorted into the views in a single pass. The cursor is taken before the
+     * read, so following it with /changes can only repeat a change the views already include, never miss one. The
+     * read is shared with concurrent dashboard loads and /changes resets.
+     */
+    @GET
+    @Path("dashboard")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Map<String, Object> getDashboard() {
+        final TodoChangeLog.Changes snapshot = snapshot();
+        final List<StateAndRef<TodoState>> myTodos = new ArrayList<>();
+        final List<StateAndRef<TodoState>> myOwnedTodos = new ArrayList<>();
+        final List<StateAndRef<TodoState>> myCompletedTodos = new ArrayList<>();
+        for (StateAndRef<TodoState> todo : snapshot.getSnapshot()) {
+            final TodoState state = todo.getState().getData();
+            if (isMyTodo(state)) myTodos.add(todo);
+            if (isMyOwnedTodo(state)) myOwnedTodos.add(todo);
+            if (isMyCompletedTodo(state)) myCompletedTodos.add(todo);
+        }
+
+        final Map<String, Object> dashboard = new LinkedHashMap<>();
+        dashboard.put("me", myLegalName);
+        dashboard.put("peers", getPeers().get("peers"));
+        dashboard.put("cursor", snapshot.getCursor());
+        dashboard.put("counts", ImmutableMap.of(
+            "myTodos", myTodos.size(),
+            "myOwnedTodos", myOwnedTodos.size(),
+            "myCompletedTodos", myCompletedTodos.size()));
+        dashboard.put("myTodos", myTodos);
+        dashboard.put("myOwnedTodos", myOwnedTodos);
+        dashboard.put("myCompletedTodos", myCompletedTodos);
+        return dashboard;
+    }
+
+    /**
+     * Returns one page of unconsumed todos matching typed criteria. The vault filters, sorts and pages them over the
+     * indexed todo_states table (see [TodoQuery]) instead of this server downloading every todo, and the response
+     * explains which criteria were pushed down.
+     *
+     * owner and assignee are X.500 names, complete is true or false, createdAfter (inclusive), createdBefore and
+     * dueBefore (exclusive) are ISO-8601 instants, sort is one of created, due, completed, title, owner or assignee,
+     * and order is asc or desc.
+     */
+    @GET
+    @Path("query")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response queryTodos(@QueryParam("owner") String owner, @QueryParam("assignee") String assignee,
+                               @QueryParam("complete") String complete, @QueryParam("titlePrefix") String titlePrefix,
+                               @QueryParam("createdAfter") String createdAfter,
+                               @QueryParam("createdBefore") String createdBefore,
+                               @QueryParam("dueBefore") String dueBefore,
+                               @QueryParam("sort") @DefaultValue("created") String sort,
+                               @QueryParam("order") @DefaultValue("asc") String order,
+                               @QueryParam("page") @DefaultValue("1") int page,
+                               @QueryParam("pageSize") @DefaultValue("" + TodoQuery.DEFAULT_PAGE_SIZE) int pageSize)
+    {
+        final TodoQuery query;
+        try {
+            final TodoQuery.SortField sortField = TodoQuery.SortField.fromName(sort);
+            if (sortField == null) throw new IllegalArgumentException("Unsupported sort " + sort);
+            if (complete != null && !complete.equals("true") && !complete.equals("false")) {
+                throw new IllegalArgumentException("complete must be true or false.");
+            }
+            query = new TodoQuery(
+                owner == null ? null : new X500Name(owner),
+                assignee == null ? null : new X500Name(assignee),
+                complete == null ? null : Boolean.valueOf(complete),
+                titlePrefix,
+                createdAfter == null ? null : Instant.parse(createdAfter),
+                createdBefore == null ? null : Instant.parse(createdBefore),
+                dueBefore == null ? null : Instant.parse(dueBefore),
+                sortField,
+                Sort.Direction.valueOf(order.toUpperCase()),
+                page,
+                pageSize);
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(ex.getMessage()).build();
+        }
+        return runQuery("query", query, page, pageSize);
+    }
+
+    /**
+     * Returns one page of open todos due within the given ISO-8601 duration from now, overdue ones included, soonest
+     * first. The vault answers it from the index on due time.
+     */
+    @GET
+    @Path("due")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getDueTodos(@QueryParam("within") String within,
+                                @QueryParam("page") @DefaultValue("1") int page,
+                                @QueryParam("pageSize") @DefaultValue("" + TodoQuery.DEFAULT_PAGE_SIZE) int pageSize)
+    {
+        final TodoQuery query;
+        try {
+            if (within == null) throw new IllegalArgumentException("within is required, e.g. within=PT24H.");
+            final Duration horizon = Duration.parse(within);
+            if (horizon.isNegative()) throw new IllegalArgumentException("within must not be negative.");
+            query = new TodoQuery(null, null, false, null, null, null, Instant.now().plus(horizon),
+                TodoQuery.SortField.DUE, Sort.Direction.ASC, page, pageSize);
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(ex.getMessage()).build();
+        }
+        return runQuery("due", query, page, pageSize);
+    }
+
+    /**
+     * Returns one page of archived todos, those [TodoArchiveFlow] has consumed, read on demand from the vault's
+     * consumed states. They take no part in any other read. Parameters are as for /query; sort defaults to completed,
+     * most recent first.
+     */
+    @GET
+    @Path("archive")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getArchivedTodos(@QueryParam("owner") String owner, @QueryParam("assignee") String assignee,
+                                     @QueryParam("titlePrefix") String titlePrefix,
+                                     @QueryParam("sort") @DefaultValue("completed") String sort,
+                                     @QueryParam("order") @DefaultValue("desc") String order,
+                                     @QueryParam("page") @DefaultValue("1") int page,
+                                     @QueryParam("pageSize") @DefaultValue("" + TodoQuery.DEFAULT_PAGE_SIZE) int pageSize)
+    {
+        final TodoQuery query;
+        try {
+            final TodoQuery.SortField sortField = TodoQuery.SortField.fromName(sort);
+            if (sortField == null) throw new IllegalArgumentException("Unsupported sort " + sort);
+            query = new TodoQuery(
+                owner == null ? null : new X500Name(owner),
+                assignee == null ? null : new X500Name(assignee),
+                true,
+                titlePrefix,
+                null,
+                null,
+                null,
+                sortField,
+                Sort.Direction.valueOf(order.toUpperCase()),
+                page,
+                pageSize).archived();
+        } catch (IllegalArgumentException ex) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(ex.getMessage()).build();
+        }
+        return runQuery("archive", query, page, pageSize);
+    }
+
+    /**
+     * Archives this node's todos completed at least olderThan (an ISO-8601 duration) ago with [TodoArchiveFlow],
+     * rather than waiting for the scheduler to do so [TodoState.ARCHIVE_AFTER] after completion.
+     *
+     * To show what archiving does for reads, the unconsumed todos are read before and after, and the response gives
+     * how many there were and how long each read took.
+     *
+     * Like every other flow the web layer starts, the archive flow waits for [admission], so a saturated node answers
+     * 429 with a Retry-After header.
+     */
+    @POST
+    @Path("archive")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response archiveTodos(@QueryParam("olderThan") @DefaultValue("P30D") String olderThan) {
+        final Duration threshold;
+        try {
+            threshold = Duration.parse(olderThan);
+            if (threshold.isNegative()) throw new IllegalArgumentException("olderThan must not be negative.");
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(ex.getMessage()).build();
+        }
+
+        final FlowAdmissionController.Permit permit;
+        try {
+            permit = admission.admit();
+        } catch (AdmissionRejectedException ex) {
+            return tooManyRequests(ex);
+        }
+
+        try {
+            final Map<String, Object> before = timedRead();
+            final Integer archived = services
+                .startFlowDynamic(TodoArchiveFlow.class, threshold)
+                .getReturnValue()
+                .get();
+            queries.invalidate();
+            final Map<String, Object> after = timedRead();
+
+            final Map<String, Object> result = new LinkedHashMap<>();
+            result.put("archived", archived);
+            result.put("before", before);
+            result.put("after", after);
+            return Response.ok(result).build();
+        } catch (Throwable ex) {
+            logger.error(ex.getMessage(), ex);
+            return Response.status(Response.Status.BAD_REQUEST).entity(ex.getMessage()).build();
+        } finally {
+            permit.release();
+        }
+    }
+
+    /** Reads every unconsumed todo, bypassing [queries], and reports how many there are and how long it took. */
+    private Map<String, Object> timedRead() {
+        final long start = System.nanoTime();
+        final int todos = unconsumedTodos().size();
+        final Map<String, Object> read = new LinkedHashMap<>();
+        read.put("unconsumedTodos", todos);
+        read.put("readMicros", (System.nanoTime() - start) / 1000);
+        return read;
+    }
+
+    private Response runQuery(String name, TodoQuery query, int page, int pageSize) {
+        final List<StateAndRef<TodoState>> todos = queryLatencies.time(name, List::size, () -> services
+            .vaultQueryBy(query.criteria(), query.paging(), query.sort(), TodoState.class)
+            .getStates().stream()
+            .filter(todo -> query.matches(todo.getState().getData()))
+            .collect(toList()));
+
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("explain", query.explain());
+        result.put("page", page);
+        result.put("pageSize", pageSize);
+        result.put("count", todos.size());
+        result.put("todos", todos);
+        return Response.ok(result).build();
+    }
+
+    /**
+     * Creates a todo assigned to assignee. With track=true the flow's progress is streamed back over RPC and logged as
+     * it happens; otherwise, unless todo.flow.trackProgress is set, only its result is sent back. Tracking costs one
+     * RPC message per progress step, child steps included, which bulk and API clients have no use for.
+     */
+    @POST
+    @Path("create")
+    public Response createTodo(@FormParam("title") String title, @FormParam("description") String description,
+                               @FormParam("assignee") X500Name assignee, @FormParam("dueDate") String dueDate,
+                               @QueryParam("track") Boolean track, @HeaderParam(IDEMPOTENCY_KEY) String idempotencyKey)
+    {
+        final Party otherParty = services.partyFromX500Name(assignee);
+
+        if (otherParty == null) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+        final Instant due;
+        try {
+            due = dueDate == null || dueDate.isEmpty() ? null : Instant.parse(dueDate);
+        } catch (DateTimeParseException ex) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("Invalid dueDate " + dueDate).build();
+        }
+
+        final String fingerprint = String.join("\n", "create", title, description, assignee.toString(), String.valueOf(due));
+        return runFlow(Response.Status.CREATED, idempotencyKey, fingerprint, null, "create", tracking(track),
+            TodoCreateFlow.Initiator.class, title, description, otherParty, due);
+    }
+
+    /**
+     * Assigns one todo to every assignee given, as repeated assignee form parameters, in a single transaction with
+     * [TodoBroadcastFlow]: one copy per assignee, notarised and recorded once rather than once per assignee. Other
+     * parameters are as for /create.
+     */
+    @POST
+    @Path("broadcast")
+    public Response broadcastTodo(@FormParam("title") String title, @FormParam("description") String description,
+                                  @FormParam("assignee") List<X500Name> assignees, @FormParam("dueDate") String dueDate,
+                                  @QueryParam("track") Boolean track, @HeaderParam(IDEMPOTENCY_KEY) String idempotencyKey)
+    {
+        if (assignees == null || assignees.isEmpty() || assignees.size() > TodoBroadcastFlow.MAX_ASSIGNEES) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("Between 1 and " + TodoBroadcastFlow.MAX_ASSIGNEES + " assignees are required.").build();
+        }
+        final List<Party> parties = new ArrayList<>(assignees.size());
+        for (X500Name assignee : assignees) {
+            final Party party = services.partyFromX500Name(assignee);
+            if (party == null) {
+                return Response.status(Response.Status.BAD_REQUEST).entity("Unknown assignee " + assignee).build();
+            }
+            if (parties.contains(party)) {
+                return Response.status(Response.Status.BAD_REQUEST).entity("Duplicate assignee " + assignee).build();
+            }
+            parties.add(party);
+        }
+        final Instant due;
+        try {
+            due = dueDate == null || dueDate.isEmpty() ? null : Instant.parse(dueDate);
+        } catch (DateTimeParseException ex) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("Invalid dueDate " + dueDate).build();
+        }
+
+        final String fingerprint = String.join("\n", "broadcast", title, description,
+            assignees.stream().map(X500Name::toString).sorted().collect(joining(",")), String.valueOf(due));
+        return runFlow(Response.Status.CREATED, idempotencyKey, fingerprint, null, "broadcast", tracking(track),
+            TodoBroadcastFlow.Initiator.class, title, description, parties, due);
+    }
+
+    /** Completes a todo; track is as for /create. */
+    @POST
+    @Path("complete")
+    public Response completeTodo(@QueryParam("id") String linearId, @QueryParam("track") Boolean track,
+                                 @HeaderParam(IDEMPOTENCY_KEY) String idempotencyKey)
+    {
+        UniqueIdentifier uuid = UniqueIdentifier.Companion.fromString(linearId);
+        return runFlow(Response.Status.ACCEPTED, idempotencyKey, "complete\n" + uuid, uuid.toString(), "complete",
+            tracking(track), TodoCompleteFlow.Initiator.class, uuid);
+    }
+
+    private boolean tracking(Boolean track) {
+        return track == null ? trackByDefault : track;
+    }
+
+    /**
+     * Starts a flow once [admission] lets it through and waits for it to finish. When the node is saturated the
+     * request is turned away with 429 and a Retry-After header rather than piling more flows onto it.
+     *
+     * If the client sent an Idempotency-Key that has been seen before, no new flow is started: the request waits for
+     * the original flow, or returns its result if it has already finished. Reusing a key for a different request
+     * is answered with 422.
+     *
+     * A flow that changes an existing todo passes its linearId as [lockKey]. While one such flow is running, another
+     * for the same todo is answered with 409, as is one that loses the race for the input inside the node or at the
+     * notary; see [TodoLocks].
+     *
+     * The flow is started with startTrackedFlowDynamic if [track] is set and startFlowDynamic otherwise. Its latency is
+     * recorded in [flowLatencies] under [name] and the mode, with the number of progress messages it sent.
+     */
+    private Response runFlow(Response.Status successStatus, String idempotencyKey, String fingerprint, String lockKey,
+                             String name, boolean track, Class<? extends FlowLogic<SignedTransaction>> flowClass,
+                             Object... args)
+    {
+        if (idempotencyKey != null) {
+            final IdempotencyCache.Entry existing = idempotency.claim(idempotencyKey, fingerprint);
+            if (existing != null) {
+                return attach(successStatus, idempotencyKey, fingerprint, existing);
+            }
+        }
+
+        final TodoLocks.Lock lock = lockKey == null ? null : locks.lock(lockKey);
+        if (lockKey != null && lock == null) {
+            final String msg = String.format("Todo %s is already being changed; try again later.", lockKey);
+            if (idempotencyKey != null) idempotency.release(idempotencyKey, new IllegalStateException(msg));
+            return Response
+                .status(Response.Status.CONFLICT)
+                .entity(msg)
+                .build();
+        }
+
+        final FlowAdmissionController.Permit permit;
+        try {
+            permit = admission.admit();
+        } catch (AdmissionRejectedException ex) {
+            if (lock != null) lock.release();
+            if (idempotencyKey != null) idempotency.release(idempotencyKey, ex);
+            return tooManyRequests(ex);
+        }
+
+        Response.Status status;
+        String msg;
+        try {
+            final long start = System.nanoTime();
+            final AtomicLong progressEvents = new AtomicLong();
+            final FlowHandle<SignedTransaction> flowHandle;
+            if (track) {
+                final FlowProgressHandle<SignedTransaction> trackedHandle = services.startTrackedFlowDynamic(flowClass, args);
+                trackedHandle.getProgress().subscribe(evt -> {
+                    progressEvents.incrementAndGet();
+                    logger.debug("{} progress: {}", flowClass.getSimpleName(), evt);
+                });
+                flowHandle = trackedHandle;
+            } else {
+                flowHandle = services.startFlowDynamic(flowClass, args);
+            }
+
+            // The line below blocks and waits for the flow to return.
+            final SignedTransaction result = flowHandle
+                .getReturnValue()
+                .get();
+            flowLatencies.record(name + (track ? " tracked" : " untracked"), (System.nanoTime() - start) / 1000,
+                progressEvents.get());
+            if (idempotencyKey != null) idempotency.complete(idempotencyKey, result.getId().toString());
+
+            status = successStatus;
+            msg = String.format("Transaction id %s committed to ledger.", result.getId());
+
+        } catch (Throwable ex) {
+            if (idempotencyKey != null) idempotency.release(idempotencyKey, ex);
+            status = locks.isConflict(ex) ? Response.Status.CONFLICT : Response.Status.BAD_REQUEST;
+            msg = ex.getMessage();
+            logger.error(msg, ex);
+        } finally {
+            permit.release();
+            if (lock != null) lock.release();
+            queries.invalidate();
+        }
+
+        return Response
+            .status(status)
+            .entity(msg)
+            .build();
+    }
+
+    /** Turns a request away because [admission] has no room for its flow. */
+    private static Response tooManyRequests(AdmissionRejectedException ex) {
+        return Response
+            .status(TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, ex.getRetryAfterSeconds())
+            .entity(ex.getMessage())
+            .build();
+    }
+
+    /** Answers a retried request from the flow its Idempotency-Key already started. */
+    private Response attach(Response.Status successStatus, String idempotencyKey, String fingerprint,
+                            IdempotencyCache.Entry existing)
+    {
+        if (!existing.getFingerprint().equals(fingerprint)) {
+            return Response
+                .status(UNPROCESSABLE_ENTITY)
+                .entity(String.format("Idempotency-Key %s was already used for a different request.", idempotencyKey))
+                .build();
+        }
+
+        Response.Status status;
+        String msg;
+        try {
+            // Blocks until the original flow returns, just as the original request does.
+            final String txId = existing.getTxId().get();
+            status = successStatus;
+            msg = String.format("Transaction id %s committed to ledger.", txId);
+        } catch (Throwable ex) {
+            status = Response.Status.BAD_REQUEST;
+            msg = ex.getCause() != null ? ex.getCause().getMessage() : ex.getMessage();
+        }
+
+        return Response
+            .status(status)
+            .entity(msg)
+            .build();
+    }
+
+    /**
+     * Bulk-creates todos from a CSV (text/csv, with a title,description,assignee header) or NDJSON
+     * (application/x-ndjson) request body.
+     *
+     * The body is streamed rather than buffered and rows are fed into a bounded window of create flows. The response
+     * is NDJSON: one record per row as its flow completes or fails validation, periodic progress records, and a final
+     * summary once every flow has finished.
+     */
+    @POST
+    @Path("import")
+    @Consumes({"text/csv", "application/x-ndjson", "application/jsonl"})
+    @Produces("application/x-ndjson")
+    public Response importTodos(@HeaderParam("Content-Type") String contentType, InputStream body) {
+        final TodoImporter.Format format = TodoImporter.Format.fromMediaType(contentType);
+        if (format == null) {
+            return Response.status(Response.Status.UNSUPPORTED_MEDIA_TYPE).build();
+        }
+
+        final StreamingOutput report = output -> importer.run(format, body, output);
+        return Response.ok(report).build();
+    }
+
+    /**
+     * Streams every todo state in the vault, consumed history included, as NDJSON (the default) or CSV.
+     *
+     * Each row carries a cursor. Passing the last cursor received back as the cursor parameter resumes the export
+     * immediately after that row, so an interrupted export never has to start again from the beginning.
+     */
+    @GET
+    @Path("export")
+    public Response exportTodos(@QueryParam("format") String formatName, @QueryParam("cursor") String cursor,
+                                @QueryParam("limit") Long limit)
+    {
+        final TodoExporter.Format format = TodoExporter.Format.fromName(formatName);
+        if (format == null) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("Unsupported format " + formatName).build();
+        }
+        final TodoStatePager.Key from;
+        try {
+            from = TodoCursor.decodeKey(TodoExporter.CURSOR_SCOPE, cursor);
+        } catch (IllegalArgumentException ex) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(ex.getMessage()).build();
+        }
+
+        final long max = limit == null || limit <= 0 ? Long.MAX_VALUE : limit;
+        final StreamingOutput rows = output -> exporter.run(format, from, max, output);
+        return Response.ok(rows, format.mediaType).build();
+    }
+
+    /**
+     * Returns every version of a todo, oldest first, together with the transaction that produced it.
+     *
+     * Versions are looked up by linearId through the vault's linear state index rather than by scanning consumed
+     * states, so the cost is proportional to the length of the history.
+     */
+    @GET
+    @Path("{linearId}/history")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getHistory(@PathParam("linearId") String linearId) {
+        final UniqueIdentifier id;
+        try {
+            id = UniqueIdentifier.Companion.fromString(linearId);
+        } catch (IllegalArgumentException ex) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("Invalid linearId " + linearId).build();
+        }
+
+        final QueryCriteria criteria = new QueryCriteria.LinearStateQueryCriteria(
+            null, Collections.singletonList(id), null, Vault.StateStatus.ALL);
+        final List<Map<String, Object>> history = new ArrayList<>();
+        pager.forEach(criteria, TodoStatePager.Key.START, Long.MAX_VALUE, (key, state, metadata) -> {
+            final Map<String, Object> version = new LinkedHashMap<>();
+            version.put("txId", state.getRef().getTxhash().toString());
+            version.put("outputIndex", state.getRef().getIndex());
+            version.put("status", metadata.getStatus());
+            version.put("recordedTime", metadata.getRecordedTime());
+            version.put("consumedTime", metadata.getConsumedTime());
+            version.put("state", state.getState().getData());
+            history.add(version);
+        });
+
+        if (history.isEmpty()) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        return Response.ok(history).build();
+    }
+
+    /**
+     * Moves up to maxMoves todos owned by this node that are not on their notary shard, typically because a notary
+     * has joined the network, onto it. Only todos untouched for coldAfterMinutes are moved. Subject to [admission],
+     * as for /archive.
+     */
+    @POST
+    @Path("rebalance-notaries")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response rebalanceNotaries(@QueryParam("coldAfterMinutes") @DefaultValue("60") long coldAfterMinutes,
+                                      @QueryParam("maxMoves") @DefaultValue("100") int maxMoves)
+    {
+        final FlowAdmissionController.Permit permit;
+        try {
+            permit = admission.admit();
+        } catch (AdmissionRejectedException ex) {
+            return tooManyRequests(ex);
+        }
+
+        try {
+            final Integer moved = services
+                .startFlowDynamic(TodoRebalanceFlow.Initiator.class, Duration.ofMinutes(coldAfterMinutes), maxMoves)
+                .getReturnValue()
+                .get();
+            queries.invalidate();
+            return Response.ok(ImmutableMap.of("moved", moved)).build();
+        } catch (Throwable ex) {
+            logger.error(ex.getMessage(), ex);
+            return Response.status(Response.Status.BAD_REQUEST).entity(ex.getMessage()).build();
+        } finally {
+            permit.release();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.api;
+
+import java.util.Properties;
+
+/**
+ * Tuning knobs for [TodoApi]. Each value can be overridden with a property of the same name, normally passed as a
+ * system property when starting the web server, e.g. -Dtodo.import.maxInFlight=32.
+ */
+public class TodoApiConfig {
+    /** The maximum number of create flows a single import keeps outstanding. */
+    public final int importMaxInFlight;
+    /** How many completed rows between the progress records an import writes. */
+    public final int importProgressInterval;
+    /** The number of pooled RPC connections to open; zero uses only the web server's own connection. */
+    public final int rpcPoolSize;
+    /** The node's RPC address. Pooling is disabled unless this is set. */
+    public final String rpcAddress;
+    public final String rpcUser;
+    public final String rpcPassword;
+    /** How often each pooled connection is pinged, and reconnected if it is down. */
+    public final long rpcHealthCheckSeconds;
+    /** The maximum number of flows the web layer runs on the node at once. */
+    public final int flowMaxConcurrent;
+    /** How many further flow requests may wait for a slot before new ones are rejected with 429. */
+    public final int flowMaxQueued;
+    /** How long a queued flow request waits for a slot before it is rejected with 429. */
+    public final long flowQueueTimeoutMillis;
+    /** The Retry-After value sent with a 429. */
+    public final long flowRetryAfterSeconds;
+    /** Whether flows stream their progress back over RPC when a request does not say; see track on /create. */
+    public final boolean flowTrackProgress;
+    /** The number of completed Idempotency-Keys remembered. */
+    public final int idempotencyMaxKeys;
+    /** How long an Idempotency-Key is remembered for. */
+    public final long idempotencyTtlSeconds;
+    /** If set, completed Idempotency-Keys are journalled to this file and survive a web server restart. */
+    public final String idempotencyJournal;
+    /** The most changes the /changes log retains. */
+    public final int changeLogMaxEntries;
+    /** How long the /changes log retains a change; clients further behind than this get a full snapshot. */
+    public final long changeLogRetentionSeconds;
+    /** How long a finished read is shared with identical requests; zero shares only queries still in flight. */
+    public final long queryCoalesceTtlMillis;
+    /** How many of the most recent timings of each vault read and flow the latency percentiles in /metrics cover. */
+    public final int latencyWindow;
+    /** If positive, the todo flows are warmed up with this many dummy iterations before the API starts serving. */
+    public final int warmupIterations;
+    /** How long a change to a todo waits for another change to the same todo to finish before answering 409. */
+    public final long mutationLockWaitMillis;
+
+    /** @throws IllegalArgumentException if a value is malformed or out of range. */
+    public TodoApiConfig(Properties props) {
+        this.importMaxInFlight = positiveIntProperty(props, "todo.import.maxInFlight", 16);
+        this.importProgressInterval = positiveIntProperty(props, "todo.import.progressInterval", 100);
+        this.rpcAddress = props.getProperty("todo.rpc.address");
+        this.rpcPoolSize = rpcAddress == null ? 0 : intProperty(props, "todo.rpc.poolSize", 4);
+        this.rpcUser = props.getProperty("todo.rpc.user", "user1");
+        this.rpcPassword = props.getProperty("todo.rpc.password", "test");
+        this.rpcHealthCheckSeconds = positiveLongProperty(props, "todo.rpc.healthCheckSeconds", 10);
+        this.flowMaxConcurrent = positiveIntProperty(props, "todo.flow.maxConcurrent", 32);
+        this.flowMaxQueued = intProperty(props, "todo.flow.maxQueued", 64);
+        this.flowQueueTimeoutMillis = positiveLongProperty(props, "todo.flow.queueTimeoutMillis", 5000);
+        this.flowRetryAfterSeconds = longProperty(props, "todo.flow.retryAfterSeconds", 2);
+        this.flowTrackProgress = Boolean.parseBoolean(props.getProperty("todo.flow.trackProgress", "false").trim());
+        this.idempotencyMaxKeys = positiveIntProperty(props, "todo.idempotency.maxKeys", 10000);
+        this.idempotencyTtlSeconds = positiveLongProperty(props, "todo.idempotency.ttlSeconds", 24 * 60 * 60);
+        this.idempotencyJournal = props.getProperty("todo.idempotency.journal");
+        this.changeLogMaxEntries = intProperty(props, "todo.changes.maxEntries", 50000);
+        this.changeLogRetentionSeconds = longProperty(props, "todo.changes.retentionSeconds", 600);
+        this.queryCoalesceTtlMillis = longProperty(props, "todo.query.coalesceTtlMillis", 0);
+        this.latencyWindow = positiveIntProperty(props, "todo.metrics.latencyWindow", 1024);
+        this.warmupIterations = intProperty(props, "todo.warmup.iterations", 0);
+        this.mutationLockWaitMillis = longProperty(props, "todo.mutation.lockWaitMillis", 0);
+    }
+
+    public static TodoApiConfig fromSystemProperties() {
+        return new TodoApiConfig(System.getProperties());
+    }
+
+    private static int intProperty(Properties props, String name, int defaultValue) {
+        final String value = props.getProperty(name);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    /**
+     * For sizes and intervals that cannot be zero: an import window or flow limit of zero would never start a flow, a
+     * progress interval of zero divides by it, and a health check every zero seconds cannot be scheduled at all.
+     */
+    private static int positiveIntProperty(Properties props, String name, int defaultValue) {
+        final int value = intProperty(props, name, defaultValue);
+        if (value < 1) throw new IllegalArgumentException(name + " must be at least 1, not " + value + ".");
+        return value;
+    }
+
+    private static long longProperty(Properties props, String name, long defaultValue) {
+        final String value = props.getProperty(name);
+        return value == null ? defaultValue : Long.parseLong(value.trim());
+    }
+
+    private static long positiveLongProperty(Properties props, String name, long defaultValue) {
+        final long value = longProperty(props, name, defaultValue);
+        if (value < 1) throw new IllegalArgumentException(name + " must be at least 1, not " + value + ".");
+        return value;
+    }
+}
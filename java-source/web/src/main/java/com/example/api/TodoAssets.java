@@ -0,0 +1,135 @@
+package com.example.api;
+
+import javax.ws.rs.*;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Serves the todo page's scripts, stylesheets and fonts from the web plugin's own jar, so the page loads without
+ * reaching any CDN.
+ *
+ * The assets are bundled from webjars at build time (see bundleWebAssets in build.gradle) under content-hashed names
+ * listed in todoAssets/manifest.properties, and compressible ones are stored next to a pre-gzipped copy. A name
+ * changes whenever its content does, so every response can be cached by the browser for a year without revalidating.
+ * Requests are answered from memory; nothing is compressed per request.
+ */
+@Path("todo/assets")
+public class TodoAssets {
+    static final String ROOT = "todoAssets/";
+    static final String MANIFEST = ROOT + "manifest.properties";
+    static private final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    private static class Asset {
+        final String contentType;
+        final String etag;
+        final byte[] identity;
+        final byte[] gzip;
+
+        Asset(String contentType, String etag, byte[] identity, byte[] gzip) {
+            this.contentType = contentType;
+            this.etag = etag;
+            this.identity = identity;
+            this.gzip = gzip;
+        }
+    }
+
+    private final Map<String, Asset> assets;
+
+    public TodoAssets() {
+        this(TodoAssets.class.getClassLoader());
+    }
+
+    TodoAssets(ClassLoader classLoader) {
+        this.assets = load(classLoader);
+    }
+
+    @GET
+    @Path("{name}")
+    public Response getAsset(@PathParam("name") String name,
+                             @HeaderParam(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding,
+                             @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch)
+    {
+        // Only names from the manifest are served, so the path can never reach anything else on the classpath.
+        final Asset asset = assets.get(name);
+        if (asset == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+
+        final boolean gzip = asset.gzip != null && acceptsGzip(acceptEncoding);
+        final String etag = "\"" + asset.etag + (gzip ? "-gzip" : "") + "\"";
+        final Response.ResponseBuilder response = etag.equals(ifNoneMatch)
+            ? Response.notModified()
+            : Response.ok(gzip ? asset.gzip : asset.identity, asset.contentType);
+        if (gzip) response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return response
+            .header(HttpHeaders.CACHE_CONTROL, IMMUTABLE)
+            .header(HttpHeaders.ETAG, etag)
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+            .build();
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String coding : acceptEncoding.split(",")) {
+            final String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) continue;
+            for (int i = 1; i < parts.length; i++) {
+                final String param = parts[i].trim().replace(" ", "");
+                if (param.equals("q=0") || param.matches("q=0\\.0*")) return false;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static Map<String, Asset> load(ClassLoader classLoader) {
+        final Properties manifest = new Properties();
+        try (InputStream in = classLoader.getResourceAsStream(MANIFEST)) {
+            if (in == null) throw new IllegalStateException(MANIFEST + " is missing; run the bundleWebAssets task.");
+            manifest.load(in);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        final Map<String, Asset> assets = new HashMap<>();
+        for (String name : manifest.stringPropertyNames()) {
+            final String hashedName = manifest.getProperty(name);
+            // Hashed names look like materialize.0123456789abcdef.min.css.
+            final String hash = hashedName.split("\\.")[1];
+            assets.put(hashedName, new Asset(contentType(hashedName), hash,
+                read(classLoader, ROOT + hashedName), read(classLoader, ROOT + hashedName + ".gz")));
+        }
+        return assets;
+    }
+
+    private static byte[] read(ClassLoader classLoader, String resource) {
+        try (InputStream in = classLoader.getResourceAsStream(resource)) {
+            if (in == null) return null;
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) > 0) out.write(buffer, 0, n);
+            return out.toByteArray();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static String contentType(String name) {
+        if (name.endsWith(".js")) return "application/javascript; charset=utf-8";
+        if (name.endsWith(".css")) return "text/css; charset=utf-8";
+        if (name.endsWith(".woff2")) return "font/woff2";
+        if (name.endsWith(".woff")) return "font/woff";
+        if (name.endsWith(".ttf")) return "font/ttf";
+        if (name.endsWith(".eot")) return "application/vnd.ms-fontobject";
+        if (name.endsWith(".svg")) return "image/svg+xml";
+        return "application/octet-stream";
+    }
+}
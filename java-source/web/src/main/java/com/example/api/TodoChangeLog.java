@@ -0,0 +1,228 @@
+package com.example.api;
+
+import com.example.query.TodoCursor;
+import com.example.query.TodoStatePager;
+import com.example.state.TodoState;
+import net.corda.core.contracts.ContractState;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.messaging.CordaRPCOps;
+import net.corda.core.node.services.Vault;
+import net.corda.core.node.services.vault.PageSpecification;
+import net.corda.core.node.services.vault.QueryCriteria;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import rx.Subscription;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static net.corda.core.node.services.vault.QueryCriteriaUtilsKt.DEFAULT_PAGE_NUM;
+
+/**
+ * An in-process log of todo changes, fed by the node's vault update stream, that lets clients fetch only what has
+ * changed since they last looked.
+ *
+ * Every todo state produced or consumed is given the next sequence number. Entries are retained for a bounded time
+ * and count. A client's cursor encodes the last sequence number it has seen plus the log's epoch, which changes
+ * whenever the log restarts. If a cursor is older than the retention window or from an earlier epoch, the client is
+ * sent a full snapshot of unconsumed todos instead, flagged with reset, and picks up deltas from there.
+ */
+public class TodoChangeLog implements AutoCloseable {
+    static private final Logger logger = LoggerFactory.getLogger(TodoChangeLog.class);
+    static private final long RESUBSCRIBE_DELAY_SECONDS = 5;
+
+    /** A single change: a todo state was produced, or consumed. */
+    public static class Change {
+        private final long seq;
+        private final String type;
+        private final String linearId;
+        private final String ref;
+        private final StateAndRef<TodoState> state;
+        private final long recordedAt;
+
+        Change(long seq, String type, StateAndRef<TodoState> state, long recordedAt) {
+            this.seq = seq;
+            this.type = type;
+            this.linearId = state.getState().getData().getLinearId().getId().toString();
+            this.ref = state.getRef().toString();
+            // Consumers only need to know which version went away, not its contents.
+            this.state = type.equals("produced") ? state : null;
+            this.recordedAt = recordedAt;
+        }
+
+        public long getSeq() { return seq; }
+        public String getType() { return type; }
+        public String getLinearId() { return linearId; }
+        public String getRef() { return ref; }
+        public StateAndRef<TodoState> getState() { return state; }
+    }
+
+    /** The answer to a changes request. */
+    public static class Changes {
+        private final String cursor;
+        private final boolean reset;
+        private final List<Change> changes;
+        private final List<StateAndRef<TodoState>> snapshot;
+
+        Changes(String cursor, boolean reset, List<Change> changes, List<StateAndRef<TodoState>> snapshot) {
+            this.cursor = cursor;
+            this.reset = reset;
+            this.changes = changes;
+            this.snapshot = snapshot;
+        }
+
+        /** Pass this back as since on the next request. */
+        public String getCursor() { return cursor; }
+        /** True if the client's cursor could not be honoured and [snapshot] replaces everything it holds. */
+        public boolean isReset() { return reset; }
+        /** Changes in order; apply consumed changes before produced ones of the same sequence. */
+        public List<Change> getChanges() { return changes; }
+        /** All unconsumed todos, only present when [reset] is true. */
+        public List<StateAndRef<TodoState>> getSnapshot() { return snapshot; }
+    }
+
+    private final CordaRPCOps services;
+    private final TodoStatePager pager;
+    private final int maxEntries;
+    private final long retentionMillis;
+    private final ArrayDeque<Change> entries = new ArrayDeque<>();
+    private final ScheduledExecutorService resubscriber = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread thread = new Thread(r, "todo-change-log");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private String epoch;
+    private long lastSeq = 0;
+    private Subscription subscription;
+
+    public TodoChangeLog(CordaRPCOps services, TodoStatePager pager, int maxEntries, long retentionMillis) {
+        this.services = services;
+        this.pager = pager;
+        this.maxEntries = maxEntries;
+        this.retentionMillis = retentionMillis;
+        subscribe();
+    }
+
+    /**
+     * Returns the changes after [since], or a reset with a full snapshot if [since] is null or can no longer be
+     * served.
+     */
+    public Changes since(String since) {
+        final String currentEpoch;
+        final long fromSeq;
+        synchronized (this) {
+            expire(System.currentTimeMillis());
+            currentEpoch = epoch;
+            fromSeq = parse(since);
+            if (fromSeq >= 0) {
+                final List<Change> changes = new ArrayList<>();
+                for (Change change : entries) {
+                    if (change.seq > fromSeq) changes.add(change);
+                }
+                return new Changes(TodoCursor.encode(scope(currentEpoch), lastSeq), false, changes, null);
+            }
+        }
+
+        // Note the position before reading the snapshot, so that anything recorded meanwhile is replayed as a
+        // delta on the next request rather than lost. Replaying a change the snapshot already reflects is harmless.
+        final long snapshotSeq = current();
+        final List<StateAndRef<TodoState>> snapshot = new ArrayList<>();
+        pager.forEach(new QueryCriteria.VaultQueryCriteria(Vault.StateStatus.UNCONSUMED), TodoStatePager.Key.START,
+            Long.MAX_VALUE, (key, state, metadata) -> snapshot.add(state));
+        return new Changes(TodoCursor.encode(scope(currentEpoch), snapshotSeq), true, Collections.emptyList(), snapshot);
+    }
+
+    /** A cursor for the current end of the log, for responses that carry their own snapshot. */
+    public synchronized String cursor() {
+        return TodoCursor.encode(scope(epoch), lastSeq);
+    }
+
+    public synchronized Map<String, Object> snapshot() {
+        final Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("lastSeq", lastSeq);
+        stats.put("oldestSeq", entries.isEmpty() ? null : entries.peekFirst().seq);
+        return stats;
+    }
+
+    private synchronized long current() {
+        return lastSeq;
+    }
+
+    /**
+     * Returns the sequence number encoded in [since], or -1 if the client must be reset: no cursor, a cursor from
+     * another epoch, or one whose successors have already been dropped from the log.
+     */
+    private long parse(String since) {
+        if (since == null || since.isEmpty()) return -1;
+        final long seq;
+        try {
+            seq = TodoCursor.decode(scope(epoch), since);
+        } catch (IllegalArgumentException ex) {
+            return -1;
+        }
+        if (seq > lastSeq) return -1;
+        final long oldestRetained = entries.isEmpty() ? lastSeq + 1 : entries.peekFirst().seq;
+        return seq + 1 >= oldestRetained ? seq : -1;
+    }
+
+    private static String scope(String epoch) {
+        return "changes-" + epoch;
+    }
+
+    private synchronized void record(Vault.Update update) {
+        final long now = System.currentTimeMillis();
+        for (StateAndRef<ContractState> consumed : update.getConsumed()) {
+            if (consumed.getState().getData() instanceof TodoState) append("consumed", consumed, now);
+        }
+        for (StateAndRef<ContractState> produced : update.getProduced()) {
+            if (produced.getState().getData() instanceof TodoState) append("produced", produced, now);
+        }
+        expire(now);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void append(String type, StateAndRef<ContractState> state, long now) {
+        entries.addLast(new Change(++lastSeq, type, (StateAndRef<TodoState>) (StateAndRef<?>) state, now));
+    }
+
+    private void expire(long now) {
+        while (!entries.isEmpty()
+            && (entries.size() > maxEntries || now - entries.peekFirst().recordedAt > retentionMillis)) {
+            entries.removeFirst();
+        }
+    }
+
+    /**
+     * (Re)subscribes to vault updates. A new epoch is started each time, because updates may have been missed while
+     * the previous subscription was down, so every client is reset.
+     */
+    private synchronized void subscribe() {
+        epoch = UUID.randomUUID().toString();
+        entries.clear();
+        lastSeq = 0;
+        try {
+            // Only the update stream is needed, so ask for the smallest possible snapshot.
+            subscription = services
+                .vaultTrackByWithPagingSpec(TodoState.class, new QueryCriteria.VaultQueryCriteria(),
+                    new PageSpecification(DEFAULT_PAGE_NUM, 1))
+                .getFuture()
+                .subscribe(this::record, this::failed);
+        } catch (RuntimeException ex) {
+            failed(ex);
+        }
+    }
+
+    private void failed(Throwable error) {
+        logger.warn("Lost the vault update stream, resubscribing: {}", error.getMessage());
+        resubscriber.schedule(this::subscribe, RESUBSCRIBE_DELAY_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        resubscriber.shutdownNow();
+        if (subscription != null) subscription.unsubscribe();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.api;
+
+import com.example.query.TodoCursor;
+import com.example.query.TodoRecords;
+import com.example.query.TodoStatePager;
+import com.example.state.TodoState;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.corda.core.contracts.StateAndRef;
+import net.corda.core.node.services.Vault;
+import net.corda.core.node.services.vault.QueryCriteria;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Streams every [TodoState] in the vault, consumed history included, as NDJSON or CSV.
+ *
+ * Rows are written as each vault page is read, so memory use is constant regardless of vault size. Every row carries
+ * a cursor which, passed back to the export endpoint, resumes the export immediately after that row.
+ *
+ * A cursor is only a place in recorded-time order, so a state recorded with an earlier time than a cursor already
+ * handed out, as when the node's clock steps back (see [TodoStatePager]), is not in the export resumed from it. Only
+ * an export from the start is sure to include every state; the replication client, which remembers what it has
+ * copied, re-reads an overlap instead.
+ */
+public class TodoExporter {
+    public static final String CURSOR_SCOPE = "export";
+
+    static private final ObjectMapper mapper = new ObjectMapper();
+    static private final String[] CSV_COLUMNS = {
+        "cursor", "linearId", "txId", "outputIndex", "status", "recordedTime", "consumedTime",
+        "title", "description", "complete", "created", "owner", "assignee"
+    };
+
+    public enum Format {
+        NDJSON("application/x-ndjson"), CSV("text/csv");
+
+        public final String mediaType;
+
+        Format(String mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        /** Returns the format named by the export endpoint's format parameter, or null if it is not supported. */
+        public static Format fromName(String name) {
+            if (name == null || name.isEmpty()) return NDJSON;
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(name)) return format;
+            }
+            return null;
+        }
+    }
+
+    private final TodoStatePager pager;
+    private final QueryCriteria criteria = new QueryCriteria.VaultQueryCriteria(Vault.StateStatus.ALL);
+
+    public TodoExporter(TodoStatePager pager) {
+        this.pager = pager;
+    }
+
+    /**
+     * Writes up to [limit] rows starting after [from]. The writer is flushed after every page
+     * so that rows reach the client while later pages are still being read.
+     */
+    public void run(Format format, TodoStatePager.Key from, long limit, OutputStream out) throws IOException {
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write(Csv.format((Object[]) CSV_COLUMNS));
+            writer.write('\n');
+        }
+        final long[] written = { 0 };
+        pager.forEach(criteria, from, limit, (key, state, metadata) -> {
+            final Map<String, Object> row = row(TodoCursor.encode(CURSOR_SCOPE, key), state, metadata);
+            if (format == Format.CSV) {
+                writer.write(Csv.format(row.values().toArray()));
+            } else {
+                writer.write(mapper.writeValueAsString(row));
+            }
+            writer.write('\n');
+            if (++written[0] % TodoStatePager.DEFAULT_PAGE_SIZE == 0) writer.flush();
+        });
+        writer.flush();
+    }
+
+    private static Map<String, Object> row(String cursor, StateAndRef<TodoState> state, Vault.StateMetadata metadata) {
+        final Map<String, Object> row = new LinkedHashMap<>();
+        row.put("cursor", cursor);
+        row.putAll(TodoRecords.flatten(state, metadata));
+        return row;
+    }
+}
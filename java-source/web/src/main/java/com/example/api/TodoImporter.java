@@ -0,0 +1,315 @@
+package com.example.api;
+
+import com.example.flow.TodoCreateFlow;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import net.corda.core.identity.Party;
+import net.corda.core.messaging.CordaRPCOps;
+import net.corda.core.messaging.FlowHandle;
+import net.corda.core.transactions.SignedTransaction;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams todos from an uploaded CSV or NDJSON body into [TodoCreateFlow]s.
+ *
+ * Rows are read and validated one at a time. At most [maxInFlight] create flows are outstanding at once: when the
+ * window is full the reader blocks, which in turn stops Jetty reading the request body, so a large upload is applied
+ * at the rate the ledger can absorb it rather than being buffered.
+ *
+ * The outcome of each row, periodic progress records and a final summary are written to the response as NDJSON.
+ */
+public class TodoImporter {
+    static private final Logger logger = LoggerFactory.getLogger(TodoImporter.class);
+    static private final ObjectMapper mapper = new ObjectMapper();
+    static private final int MAX_TITLE_LENGTH = 255;
+
+    public enum Format {
+        CSV, NDJSON;
+
+        /** Picks the row format from the request's content type, or returns null if it is not supported. */
+        public static Format fromMediaType(String contentType) {
+            if (contentType == null) return null;
+            final String type = contentType.split(";")[0].trim().toLowerCase(Locale.ROOT);
+            switch (type) {
+                case "text/csv": return CSV;
+                case "application/x-ndjson":
+                case "application/jsonl": return NDJSON;
+                default: return null;
+            }
+        }
+    }
+
+    private final CordaRPCOps services;
+    private final FlowAdmissionController admission;
+    private final QueryCoalescer queries;
+    private final int maxInFlight;
+    private final int progressInterval;
+
+    public TodoImporter(CordaRPCOps services, FlowAdmissionController admission, QueryCoalescer queries,
+                        int maxInFlight, int progressInterval) {
+        if (maxInFlight < 1) throw new IllegalArgumentException("maxInFlight must be at least 1.");
+        if (progressInterval < 1) throw new IllegalArgumentException("progressInterval must be at least 1.");
+        this.services = services;
+        this.admission = admission;
+        this.queries = queries;
+        this.maxInFlight = maxInFlight;
+        this.progressInterval = progressInterval;
+    }
+
+    /**
+     * Reads every row from [in], starting a create flow for each valid one, and reports on [out]. Returns once all
+     * started flows have finished.
+     */
+    public void run(Format format, InputStream in, OutputStream out) {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        final Run run = new Run(writer);
+
+        try {
+            final RowSource rows = format == Format.CSV ? new CsvRows(reader) : new NdjsonRows(reader);
+            Row row;
+            while ((row = rows.next()) != null) {
+                run.submit(row);
+            }
+        } catch (IOException | RuntimeException ex) {
+            logger.error("Import aborted", ex);
+            run.report(record("status", "aborted", "error", ex.getMessage()));
+        } finally {
+            run.awaitCompletion();
+        }
+    }
+
+    /** A single parsed input row. [error] is set when the row could not be parsed. */
+    private static class Row {
+        final long number;
+        final String title;
+        final String description;
+        final String assignee;
+        final String error;
+
+        Row(long number, String title, String description, String assignee, String error) {
+            this.number = number;
+            this.title = title;
+            this.description = description;
+            this.assignee = assignee;
+            this.error = error;
+        }
+    }
+
+    private interface RowSource {
+        Row next() throws IOException;
+    }
+
+    /** CSV input: the first record is a header naming the title, description and assignee columns. */
+    private static class CsvRows implements RowSource {
+        private final Csv.Reader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private long rowNumber = 0;
+
+        CsvRows(BufferedReader in) throws IOException {
+            this.reader = new Csv.Reader(in);
+            final List<String> header = reader.next();
+            if (header == null) return;
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            for (String required : Arrays.asList("title", "assignee")) {
+                if (!columns.containsKey(required))
+                    throw new IOException("CSV header is missing the '" + required + "' column.");
+            }
+        }
+
+        @Override
+        public Row next() throws IOException {
+            final List<String> fields = reader.next();
+            if (fields == null) return null;
+            rowNumber++;
+            return new Row(rowNumber, field(fields, "title"), field(fields, "description"), field(fields, "assignee"), null);
+        }
+
+        private String field(List<String> fields, String name) {
+            final Integer index = columns.get(name);
+            return index == null || index >= fields.size() ? null : fields.get(index);
+        }
+    }
+
+    /** NDJSON input: one JSON object per line with title, description and assignee properties. */
+    private static class NdjsonRows implements RowSource {
+        private final BufferedReader in;
+        private long rowNumber = 0;
+
+        NdjsonRows(BufferedReader in) {
+            this.in = in;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String line;
+            do {
+                line = in.readLine();
+                if (line == null) return null;
+            } while (line.trim().isEmpty());
+            rowNumber++;
+            try {
+                final JsonNode node = mapper.readTree(line);
+                if (!node.isObject()) return new Row(rowNumber, null, null, null, "Row is not a JSON object.");
+                return new Row(rowNumber, text(node, "title"), text(node, "description"), text(node, "assignee"), null);
+            } catch (IOException ex) {
+                return new Row(rowNumber, null, null, null, "Malformed JSON: " + ex.getMessage());
+            }
+        }
+
+        private static String text(JsonNode node, String name) {
+            final JsonNode value = node.get(name);
+            return value == null || value.isNull() ? null : value.asText();
+        }
+    }
+
+    /** The state of a single import request. */
+    private class Run {
+        private final Writer writer;
+        private final Semaphore window = new Semaphore(maxInFlight);
+        // Assignees tend to repeat heavily, so resolve each name over RPC only once per import.
+        private final Map<String, Optional<Party>> parties = new HashMap<>();
+        private final AtomicLong read = new AtomicLong();
+        private final AtomicLong submitted = new AtomicLong();
+        private final AtomicLong created = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final long startedAt = System.nanoTime();
+
+        Run(Writer writer) {
+            this.writer = writer;
+        }
+
+        void submit(Row row) throws IOException {
+            read.incrementAndGet();
+            final String error = row.error != null ? row.error : validate(row);
+            if (error != null) {
+                failed(row, error);
+                return;
+            }
+            final Party assignee = parties.get(row.assignee.trim()).get();
+
+            // Imports share the node's flow capacity with interactive requests, but wait for it rather than being
+            // rejected.
+            final FlowAdmissionController.Permit permit;
+            try {
+                window.acquire();
+                try {
+                    permit = admission.admitWhenAvailable();
+                } catch (InterruptedException ex) {
+                    window.release();
+                    throw ex;
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Import interrupted");
+            }
+            submitted.incrementAndGet();
+            final FlowHandle<SignedTransaction> handle;
+            try {
+                handle = services.startFlowDynamic(TodoCreateFlow.Initiator.class,
+                    row.title, row.description == null ? "" : row.description, assignee);
+            } catch (RuntimeException ex) {
+                permit.release();
+                failed(row, ex.getMessage());
+                window.release();
+                return;
+            }
+            // The window is released last, once the row has been counted and reported, so that [awaitCompletion]
+            // cannot write the summary while a row is still being accounted for.
+            Futures.addCallback(handle.getReturnValue(), new FutureCallback<SignedTransaction>() {
+                @Override public void onSuccess(SignedTransaction result) {
+                    permit.release();
+                    queries.invalidate();
+                    finished(created, record("row", row.number, "status", "created", "tx", result.getId().toString()));
+                    window.release();
+                }
+
+                @Override public void onFailure(Throwable t) {
+                    permit.release();
+                    queries.invalidate();
+                    failed(row, t.getMessage());
+                    window.release();
+                }
+            });
+        }
+
+        private String validate(Row row) {
+            if (row.title == null || row.title.trim().isEmpty()) return "Title is required.";
+            if (row.title.length() > MAX_TITLE_LENGTH) return "Title is longer than " + MAX_TITLE_LENGTH + " characters.";
+            if (row.assignee == null || row.assignee.trim().isEmpty()) return "Assignee is required.";
+            final String name = row.assignee.trim();
+            final Optional<Party> party = parties.computeIfAbsent(name, this::resolve);
+            return party.isPresent() ? null : "Unknown assignee " + name + ".";
+        }
+
+        private Optional<Party> resolve(String name) {
+            try {
+                return Optional.ofNullable(services.partyFromX500Name(new X500Name(name)));
+            } catch (IllegalArgumentException ex) {
+                return Optional.empty();
+            }
+        }
+
+        private void failed(Row row, String error) {
+            finished(failed, record("row", row.number, "status", "failed", "error", error));
+        }
+
+        /**
+         * Counts a finished row in [outcome] and reports it, followed by a progress record every [progressInterval]
+         * rows. Counting and reporting happen under the same lock, so each progress record is written exactly once.
+         */
+        private synchronized void finished(AtomicLong outcome, Map<String, Object> record) {
+            outcome.incrementAndGet();
+            report(record);
+            if ((created.get() + failed.get()) % progressInterval == 0) report(progressRecord("progress"));
+        }
+
+        void awaitCompletion() {
+            window.acquireUninterruptibly(maxInFlight);
+            window.release(maxInFlight);
+            report(progressRecord("done"));
+        }
+
+        private Map<String, Object> progressRecord(String status) {
+            return record(
+                "status", status,
+                "read", read.get(),
+                "submitted", submitted.get(),
+                "created", created.get(),
+                "failed", failed.get(),
+                "elapsedMillis", (System.nanoTime() - startedAt) / 1_000_000);
+        }
+
+        /** Writes one NDJSON record. Flow completions arrive on RPC threads, so writes are serialised. */
+        synchronized void report(Map<String, Object> record) {
+            try {
+                writer.write(mapper.writeValueAsString(record));
+                writer.write('\n');
+                writer.flush();
+            } catch (IOException ex) {
+                // The client has gone away; the flows already started will still run to completion.
+                logger.warn("Unable to report import progress: {}", ex.getMessage());
+            }
+        }
+    }
+
+    private static Map<String, Object> record(Object... keysAndValues) {
+        final Map<String, Object> record = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            record.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return record;
+    }
+}
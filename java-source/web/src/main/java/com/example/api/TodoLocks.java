@@ -0,0 +1,119 @@
+package com.example.api;
+
+import net.corda.core.node.services.StatesNotAvailableException;
+import net.corda.flows.NotaryError;
+import net.corda.flows.NotaryException;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serialises mutations of the same todo within the web server, and counts the conflicts that get past it.
+ *
+ * A mutation takes the lock for its todo's linearId before its flow is started. If another mutation of that todo is
+ * already running, the request waits up to [waitMillis] for it and otherwise fails straight away, instead of building
+ * and signing a transaction that can only lose at the notary. Requests from other web servers, or other nodes, can
+ * still race; those conflicts surface as a soft-lock or notary failure and are counted by [isConflict].
+ */
+public class TodoLocks {
+    /** A held lock; must be released exactly once when the mutation finishes. */
+    public interface Lock {
+        void release();
+    }
+
+    private static class Holder {
+        final Semaphore semaphore = new Semaphore(1, true);
+        int users = 0;
+    }
+
+    private final long waitMillis;
+    private final Map<String, Holder> holders = new HashMap<>();
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong waited = new AtomicLong();
+    private final AtomicLong lockConflicts = new AtomicLong();
+    private final AtomicLong softLockConflicts = new AtomicLong();
+    private final AtomicLong notaryConflicts = new AtomicLong();
+
+    public TodoLocks(long waitMillis) {
+        this.waitMillis = waitMillis;
+    }
+
+    /**
+     * Locks the todo with [linearId], waiting up to [waitMillis] if it is already locked. Returns null if it could not
+     * be locked in that time.
+     */
+    public Lock lock(String linearId) {
+        final Holder holder;
+        synchronized (holders) {
+            holder = holders.computeIfAbsent(linearId, id -> new Holder());
+            holder.users++;
+        }
+
+        boolean locked = holder.semaphore.tryAcquire();
+        if (!locked && waitMillis > 0) {
+            waited.incrementAndGet();
+            try {
+                locked = holder.semaphore.tryAcquire(waitMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!locked) {
+            unreference(linearId, holder);
+            lockConflicts.incrementAndGet();
+            return null;
+        }
+
+        acquired.incrementAndGet();
+        final AtomicBoolean released = new AtomicBoolean(false);
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                holder.semaphore.release();
+                unreference(linearId, holder);
+            }
+        };
+    }
+
+    /**
+     * Returns whether [error], from a mutation flow, means it lost a race for its input: either another flow on the
+     * node had soft-locked the state, or the notary had already seen it spent. Conflicts are counted.
+     */
+    public boolean isConflict(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof StatesNotAvailableException) {
+                softLockConflicts.incrementAndGet();
+                return true;
+            }
+            if (cause instanceof NotaryException && ((NotaryException) cause).getError() instanceof NotaryError.Conflict) {
+                notaryConflicts.incrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Map<String, Object> snapshot() {
+        final Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (holders) {
+            stats.put("todosInUse", holders.size());
+        }
+        stats.put("waitMillis", waitMillis);
+        stats.put("acquired", acquired.get());
+        stats.put("waited", waited.get());
+        stats.put("lockConflicts", lockConflicts.get());
+        stats.put("softLockConflicts", softLockConflicts.get());
+        stats.put("notaryConflicts", notaryConflicts.get());
+        return stats;
+    }
+
+    private void unreference(String linearId, Holder holder) {
+        synchronized (holders) {
+            if (--holder.users == 0) holders.remove(linearId);
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.plugin;
 
 import com.example.api.ExampleApi;
+import com.example.api.RequestEvents;
 import com.example.api.TodoApi;
+import com.example.api.TodoAssets;
 import com.example.flow.ExampleFlow;
 import com.example.state.IOUState;
 import com.google.common.collect.ImmutableList;
@@ -20,9 +22,10 @@ import java.util.function.Function;
 
 public class ExamplePlugin implements WebServerPluginRegistry {
     /**
-     * A list of classes that expose web APIs.
+     * A list of classes that expose web APIs, and the filter that records their requests as Flight Recorder events.
      */
-    private final List<Function<CordaRPCOps, ?>> webApis = ImmutableList.of(TodoApi::new);
+    private final List<Function<CordaRPCOps, ?>> webApis = ImmutableList.of(TodoApi::new, services -> new TodoAssets(),
+        services -> new RequestEvents());
 
     /**
      * A list of directories in the resources directory that will be served by Jetty under /web.
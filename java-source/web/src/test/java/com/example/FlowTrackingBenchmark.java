@@ -0,0 +1,172 @@
+package com.example;
+
+import com.example.flow.TodoCreateFlow;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import net.corda.core.identity.Party;
+import net.corda.core.messaging.CordaRPCOps;
+import net.corda.core.messaging.FlowHandle;
+import net.corda.core.messaging.FlowProgressHandle;
+import net.corda.core.node.services.ServiceInfo;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.node.services.config.VerifierType;
+import net.corda.node.services.transactions.ValidatingNotaryService;
+import net.corda.nodeapi.User;
+import net.corda.testing.driver.NodeHandle;
+import org.bouncycastle.asn1.x500.X500Name;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+import static net.corda.testing.driver.Driver.driver;
+
+/**
+ * Compares starting todo create flows with and without progress tracking, to show what the progress stream costs the
+ * RPC connection. Run it with the runFlowTrackingBenchmark task, or directly:
+ *
+ *   FlowTrackingBenchmark [todos per level] [concurrency levels, comma separated]
+ *
+ * A validating notary and two nodes are started by the driver, and NodeA creates todos assigned to NodeB from as many
+ * concurrent RPC clients as the level allows, once with startFlowDynamic and once with startTrackedFlowDynamic. Every
+ * progress step, including those of the subflows' child trackers, is one more RPC message to the client; the
+ * messages received per flow are printed with throughput and latency. A warm-up round of each mode runs first and is
+ * not reported.
+ */
+public class FlowTrackingBenchmark {
+    static private final int DEFAULT_TODOS = 200;
+    static private final int[] DEFAULT_LEVELS = { 1, 4, 16, 64 };
+    static private final User USER = new User("user1", "test", ImmutableSet.of(
+        "StartFlow." + TodoCreateFlow.Initiator.class.getName()));
+
+    private static class Result {
+        final boolean tracked;
+        final int concurrency;
+        final int todos;
+        final double seconds;
+        final List<Long> micros;
+        final long progressMessages;
+        final int failures;
+
+        Result(boolean tracked, int concurrency, int todos, double seconds, List<Long> micros, long progressMessages,
+               int failures) {
+            this.tracked = tracked;
+            this.concurrency = concurrency;
+            this.todos = todos;
+            this.seconds = seconds;
+            this.micros = micros;
+            this.progressMessages = progressMessages;
+            this.failures = failures;
+        }
+    }
+
+    public static void main(String[] args) {
+        final int todos = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TODOS;
+        final int[] levels = args.length > 1
+            ? Arrays.stream(args[1].split(",")).mapToInt(level -> Integer.parseInt(level.trim())).toArray()
+            : DEFAULT_LEVELS;
+
+        final List<Result> results = driver(false, dsl -> {
+            try {
+                dsl.startNode(new X500Name("CN=Controller,O=R3,OU=corda,L=London,C=UK"),
+                    ImmutableSet.of(new ServiceInfo(ValidatingNotaryService.Companion.getType(), null)),
+                    emptyList(), VerifierType.InMemory, emptyMap(), null).get();
+                final NodeHandle nodeA = dsl.startNode(new X500Name("CN=NodeA,O=NodeA,L=London,C=UK"),
+                    emptySet(), ImmutableList.of(USER), VerifierType.InMemory, emptyMap(), null).get();
+                final NodeHandle nodeB = dsl.startNode(new X500Name("CN=NodeB,O=NodeB,L=New York,C=US"),
+                    emptySet(), ImmutableList.of(USER), VerifierType.InMemory, emptyMap(), null).get();
+
+                final CordaRPCOps proxy = nodeA.rpcClientToNode()
+                    .start(USER.getUsername(), USER.getPassword()).getProxy();
+                final Party assignee = nodeB.getNodeInfo().getLegalIdentity();
+
+                for (boolean tracked : new boolean[] { false, true }) {
+                    measure(tracked, proxy, assignee, Math.min(todos, 20), 4);
+                }
+                final List<Result> measured = new ArrayList<>();
+                for (int i = 0; i < levels.length; i++) {
+                    // Alternate which mode goes first so that neither always runs on the emptier vault.
+                    final boolean trackedFirst = i % 2 == 1;
+                    measured.add(measure(trackedFirst, proxy, assignee, todos, levels[i]));
+                    measured.add(measure(!trackedFirst, proxy, assignee, todos, levels[i]));
+                }
+                return measured;
+            } catch (Exception ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+
+        System.out.println();
+        System.out.println(String.format("%-9s %11s %8s %9s   %-20s %13s %8s",
+            "progress", "concurrency", "todos", "flows/s", "p50/p95/p99 ms", "progress/flow", "failures"));
+        for (Result result : results) {
+            final int succeeded = result.todos - result.failures;
+            System.out.println(String.format("%-9s %11d %8d %9.1f   %-20s %13.1f %8d",
+                result.tracked ? "tracked" : "untracked", result.concurrency, result.todos,
+                succeeded / result.seconds, percentiles(result.micros),
+                succeeded == 0 ? 0.0 : (double) result.progressMessages / succeeded, result.failures));
+        }
+    }
+
+    private static Result measure(boolean tracked, CordaRPCOps proxy, Party assignee, int todos, int concurrency)
+        throws InterruptedException
+    {
+        final List<Long> micros = Collections.synchronizedList(new ArrayList<>());
+        final AtomicLong progressMessages = new AtomicLong();
+        final AtomicInteger remaining = new AtomicInteger(todos);
+        final AtomicInteger failures = new AtomicInteger();
+
+        final ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        final long start = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            clients.execute(() -> {
+                while (remaining.getAndDecrement() > 0) {
+                    try {
+                        final long began = System.nanoTime();
+                        final FlowHandle<SignedTransaction> handle;
+                        if (tracked) {
+                            final FlowProgressHandle<SignedTransaction> trackedHandle = proxy.startTrackedFlowDynamic(
+                                TodoCreateFlow.Initiator.class, "Benchmark", "Flow tracking benchmark todo", assignee);
+                            trackedHandle.getProgress().subscribe(step -> progressMessages.incrementAndGet());
+                            handle = trackedHandle;
+                        } else {
+                            handle = proxy.startFlowDynamic(
+                                TodoCreateFlow.Initiator.class, "Benchmark", "Flow tracking benchmark todo", assignee);
+                        }
+                        handle.getReturnValue().get();
+                        micros.add((System.nanoTime() - began) / 1000);
+                    } catch (Exception ex) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(1, TimeUnit.HOURS);
+        final double seconds = (System.nanoTime() - start) / 1e9;
+
+        return new Result(tracked, concurrency, todos, seconds, micros, progressMessages.get(), failures.get());
+    }
+
+    private static String percentiles(List<Long> micros) {
+        if (micros.isEmpty()) return "-";
+        final List<Long> sorted = new ArrayList<>(micros);
+        Collections.sort(sorted);
+        return String.format("%.1f/%.1f/%.1f",
+            percentile(sorted, 50) / 1000.0, percentile(sorted, 95) / 1000.0, percentile(sorted, 99) / 1000.0);
+    }
+
+    private static long percentile(List<Long> sorted, int percent) {
+        final int index = (int) Math.ceil(percent / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index));
+    }
+}
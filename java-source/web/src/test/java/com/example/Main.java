@@ -9,6 +9,8 @@ import net.corda.nodeapi.User;
 import net.corda.testing.driver.NodeHandle;
 import org.bouncycastle.asn1.x500.X500Name;
 
+import java.util.concurrent.Future;
+
 import static java.util.Collections.*;
 import static net.corda.testing.driver.Driver.driver;
 
@@ -25,24 +27,41 @@ import static net.corda.testing.driver.Driver.driver;
  * the console output to be sure.
  * 4. Set your breakpoints in your CorDapp code.
  * 5. Run the "Debug CorDapp" remote debug run configuration.
+ * <p>
+ * Nodes verify transactions in memory by default. Run with -Dtodo.verifierType=OutOfProcess to have each node hand
+ * verification to separate verifier processes instead (-Dtodo.verifiersPerNode of them, 2 by default).
  */
 public class Main {
     public static void main(String[] args) {
         // No permissions required as we are not invoking flows.
         final User user = new User("user1", "test", emptySet());
+        final VerifierType verifierType = OutOfProcessVerifiers.configuredType();
+        final OutOfProcessVerifiers verifiers = new OutOfProcessVerifiers();
         driver(
                 true,
                 dsl -> {
-                    dsl.startNode(new X500Name("CN=Controller,O=R3,OU=corda,L=London,C=UK"),
+                    Future<NodeHandle> controller = dsl.startNode(new X500Name("CN=Controller,O=R3,OU=corda,L=London,C=UK"),
+                            ImmutableSet.of(new ServiceInfo(ValidatingNotaryService.Companion.getType(), null)),
+                            emptyList(),
+                            verifierType,
+                            emptyMap(),null);
+                    // A second notary, so that todos are sharded across notaries.
+                    Future<NodeHandle> notary2 = dsl.startNode(new X500Name("CN=Notary2,O=R3,OU=corda,L=Dublin,C=IE"),
                             ImmutableSet.of(new ServiceInfo(ValidatingNotaryService.Companion.getType(), null)),
                             emptyList(),
-                            VerifierType.InMemory,
+                            verifierType,
                             emptyMap(),null);
 
                     try {
-                        NodeHandle nodeA = dsl.startNode(new X500Name("CN=NodeA,O=NodeA,L=London,C=UK"), emptySet(), ImmutableList.of(user), VerifierType.InMemory, emptyMap(), null).get();
-                        NodeHandle nodeB = dsl.startNode(new X500Name("CN=NodeB,O=NodeB,L=New York,C=US"), emptySet(), ImmutableList.of(user), VerifierType.InMemory, emptyMap(), null).get();
-                        NodeHandle nodeC = dsl.startNode(new X500Name("CN=NodeC,O=NodeC,L=Paris,C=FR"), emptySet(), ImmutableList.of(user), VerifierType.InMemory, emptyMap(), null).get();
+                        NodeHandle nodeA = dsl.startNode(new X500Name("CN=NodeA,O=NodeA,L=London,C=UK"), emptySet(), ImmutableList.of(user), verifierType, emptyMap(), null).get();
+                        NodeHandle nodeB = dsl.startNode(new X500Name("CN=NodeB,O=NodeB,L=New York,C=US"), emptySet(), ImmutableList.of(user), verifierType, emptyMap(), null).get();
+                        NodeHandle nodeC = dsl.startNode(new X500Name("CN=NodeC,O=NodeC,L=Paris,C=FR"), emptySet(), ImmutableList.of(user), verifierType, emptyMap(), null).get();
+
+                        if (verifierType == VerifierType.OutOfProcess) {
+                            for (NodeHandle node : ImmutableList.of(controller.get(), notary2.get(), nodeA, nodeB, nodeC)) {
+                                verifiers.start(node, OutOfProcessVerifiers.configuredCount());
+                            }
+                        }
 
                         dsl.startWebserver(nodeA);
                         dsl.startWebserver(nodeB);
@@ -0,0 +1,69 @@
+package com.example;
+
+import net.corda.node.services.config.VerifierType;
+import net.corda.testing.driver.NodeHandle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts verifier processes for nodes started by the driver with [VerifierType.OutOfProcess].
+ *
+ * Such a node hands contract verification to whichever verifiers have connected to its message broker, so until at
+ * least one has, its transactions wait. Each verifier is a separate JVM running net.corda.verifier.Verifier on this
+ * process's classpath, which also gives it the todo contracts. It connects to the node's P2P address using the node's
+ * own certificates, so it is started only once the node is up. Verifiers are stopped by [stop], or when this JVM
+ * exits.
+ */
+public class OutOfProcessVerifiers {
+    private final List<Process> processes = new ArrayList<>();
+
+    public OutOfProcessVerifiers() {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::stop));
+    }
+
+    /** Reads the verifier type from the todo.verifierType system property, defaulting to in-memory verification. */
+    public static VerifierType configuredType() {
+        return VerifierType.valueOf(System.getProperty("todo.verifierType", VerifierType.InMemory.name()));
+    }
+
+    /** Reads how many verifiers to start per node from todo.verifiersPerNode, defaulting to 2. */
+    public static int configuredCount() {
+        return Integer.getInteger("todo.verifiersPerNode", 2);
+    }
+
+    /** Starts [count] verifiers for [node], which must already be running. */
+    public synchronized void start(NodeHandle node, int count) {
+        final Path baseDirectory = node.getConfiguration().getBaseDirectory();
+        try {
+            // The verifier reads verifier.conf and certificates/ from the directory it is given.
+            Files.write(baseDirectory.resolve("verifier.conf"),
+                ("nodeHostAndPort = \"" + node.getConfiguration().getP2pAddress() + "\"\n").getBytes(StandardCharsets.UTF_8));
+            Files.createDirectories(baseDirectory.resolve("logs"));
+
+            final String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+            for (int i = 0; i < count; i++) {
+                final File log = baseDirectory.resolve("logs").resolve("verifier-" + i + ".log").toFile();
+                processes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                        "net.corda.verifier.Verifier", baseDirectory.toString())
+                    .redirectErrorStream(true)
+                    .redirectOutput(log)
+                    .start());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public synchronized void stop() {
+        processes.forEach(Process::destroy);
+        processes.clear();
+    }
+}
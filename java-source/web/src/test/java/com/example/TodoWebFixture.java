@@ -0,0 +1,202 @@
+package com.example;
+
+import com.example.api.TodoAssets;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves the todo web UI against a synthetic vault, so that rendering can be exercised with tens of thousands of
+ * todos without running a network of nodes.
+ *
+ * Usage: TodoWebFixture [todo count] [port], then browse to http://localhost:port/web/todo/. The fixture answers the
+ * same /api/todo endpoints as TodoApi with responses of the same shape, and completes a random todo every half
+ * second so that the UI's delta handling can be watched under load.
+ */
+public class TodoWebFixture {
+    private static final String ME = "CN=NodeA,O=NodeA,L=London,C=UK";
+    private static final List<String> PEERS = ImmutableList.of("CN=NodeB,O=NodeB,L=New York,C=US", "CN=NodeC,O=NodeC,L=Paris,C=FR");
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final Random random = new Random(42);
+    private final Map<String, Map<String, Object>> todos = new LinkedHashMap<>();
+    private final List<Map<String, Object>> changes = new ArrayList<>();
+    private long txCounter = 0;
+
+    public static void main(String[] args) throws IOException {
+        final int count = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        final int port = args.length > 1 ? Integer.parseInt(args[1]) : 10050;
+        new TodoWebFixture(count).start(port);
+        System.out.printf("Serving %d todos at http://localhost:%d/web/todo/%n", count, port);
+    }
+
+    private TodoWebFixture(int count) {
+        for (int i = 0; i < count; i++) {
+            final boolean owned = random.nextBoolean();
+            final String other = PEERS.get(random.nextInt(PEERS.size()));
+            final String id = UUID.randomUUID().toString();
+            todos.put(id, stateAndRef(id, "Todo " + i, "Synthetic todo number " + i,
+                random.nextInt(4) == 0, owned ? ME : other, owned ? other : ME));
+        }
+    }
+
+    private void start(int port) throws IOException {
+        final HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/web/todo/", exchange -> respond(exchange, "text/html", resource("todoWeb/index.html")));
+        final TodoAssets assets = new TodoAssets();
+        server.createContext("/api/todo/assets/", exchange -> {
+            final String name = exchange.getRequestURI().getPath().substring("/api/todo/assets/".length());
+            final Response asset = assets.getAsset(name, null, null);
+            if (asset.getStatus() != Response.Status.OK.getStatusCode()) {
+                exchange.sendResponseHeaders(asset.getStatus(), -1);
+                exchange.close();
+                return;
+            }
+            respond(exchange, asset.getMediaType().toString(), (byte[]) asset.getEntity());
+        });
+        server.createContext("/api/todo/me", exchange -> json(exchange, ImmutableMap.of("me", ME)));
+        server.createContext("/api/todo/peers", exchange -> json(exchange, ImmutableMap.of("peers", PEERS)));
+        server.createContext("/api/todo/dashboard", exchange -> json(exchange, dashboard()));
+        server.createContext("/api/todo/changes", exchange -> json(exchange, changes(query(exchange).get("since"))));
+        server.createContext("/api/todo/complete", exchange -> {
+            complete(query(exchange).get("id"));
+            respond(exchange, "text/plain", "Completed".getBytes(StandardCharsets.UTF_8));
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        final ScheduledExecutorService churn = Executors.newSingleThreadScheduledExecutor();
+        churn.scheduleAtFixedRate(this::completeRandomTodo, 500, 500, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized Map<String, Object> changes(String since) {
+        final Map<String, Object> response = new LinkedHashMap<>();
+        final int from = since == null ? -1 : Integer.parseInt(since);
+        response.put("cursor", Integer.toString(changes.size()));
+        response.put("reset", from < 0);
+        response.put("changes", from < 0 ? Collections.emptyList() : new ArrayList<>(changes.subList(from, changes.size())));
+        response.put("snapshot", from < 0 ? new ArrayList<>(todos.values()) : null);
+        return response;
+    }
+
+    private synchronized Map<String, Object> dashboard() {
+        final List<Map<String, Object>> myTodos = new ArrayList<>();
+        final List<Map<String, Object>> myOwnedTodos = new ArrayList<>();
+        final List<Map<String, Object>> myCompletedTodos = new ArrayList<>();
+        todos.values().forEach(todo -> {
+            final Map<String, Object> data = data(todo);
+            final boolean assignedToMe = ME.equals(data.get("assignee"));
+            if (assignedToMe && !isComplete(todo)) myTodos.add(todo);
+            if (ME.equals(data.get("owner"))) myOwnedTodos.add(todo);
+            if (assignedToMe && isComplete(todo)) myCompletedTodos.add(todo);
+        });
+        final Map<String, Object> response = new LinkedHashMap<>();
+        response.put("me", ME);
+        response.put("peers", PEERS);
+        response.put("cursor", Integer.toString(changes.size()));
+        response.put("counts", ImmutableMap.of(
+            "myTodos", myTodos.size(), "myOwnedTodos", myOwnedTodos.size(), "myCompletedTodos", myCompletedTodos.size()));
+        response.put("myTodos", myTodos);
+        response.put("myOwnedTodos", myOwnedTodos);
+        response.put("myCompletedTodos", myCompletedTodos);
+        return response;
+    }
+
+    private synchronized void completeRandomTodo() {
+        final List<String> open = new ArrayList<>();
+        todos.forEach((id, todo) -> { if (!isComplete(todo)) open.add(id); });
+        if (!open.isEmpty()) complete(open.get(random.nextInt(open.size())));
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized void complete(String id) {
+        final Map<String, Object> old = todos.get(id);
+        if (old == null || isComplete(old)) return;
+        final Map<String, Object> data = (Map<String, Object>) ((Map<String, Object>) old.get("state")).get("data");
+        final Map<String, Object> item = (Map<String, Object>) data.get("todoItem");
+        final Map<String, Object> updated = stateAndRef(id, (String) item.get("title"), (String) item.get("description"),
+            true, (String) data.get("owner"), (String) data.get("assignee"));
+        todos.put(id, updated);
+        changes.add(change("consumed", id, old, null));
+        changes.add(change("produced", id, updated, updated));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> data(Map<String, Object> todo) {
+        return (Map<String, Object>) ((Map<String, Object>) todo.get("state")).get("data");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean isComplete(Map<String, Object> todo) {
+        return (Boolean) ((Map<String, Object>) data(todo).get("todoItem")).get("complete");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> change(String type, String id, Map<String, Object> version, Map<String, Object> state) {
+        final Map<String, Object> ref = (Map<String, Object>) version.get("ref");
+        final Map<String, Object> change = new LinkedHashMap<>();
+        change.put("seq", changes.size() + 1);
+        change.put("type", type);
+        change.put("linearId", id);
+        change.put("ref", ref.get("txhash") + "(" + ref.get("index") + ")");
+        change.put("state", state);
+        return change;
+    }
+
+    private Map<String, Object> stateAndRef(String id, String title, String description, boolean complete,
+                                            String owner, String assignee) {
+        final Map<String, Object> item = ImmutableMap.of("title", title, "description", description, "complete", complete);
+        final Map<String, Object> data = ImmutableMap.of(
+            "todoItem", item, "owner", owner, "assignee", assignee, "linearId", ImmutableMap.of("id", id));
+        return ImmutableMap.of(
+            "state", ImmutableMap.of("data", data),
+            "ref", ImmutableMap.of("txhash", String.format("%064X", ++txCounter), "index", 0));
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) throws IOException {
+        final Map<String, String> params = new HashMap<>();
+        final String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null) return params;
+        for (String pair : raw.split("&")) {
+            final String[] kv = pair.split("=", 2);
+            params.put(URLDecoder.decode(kv[0], "UTF-8"), kv.length > 1 ? URLDecoder.decode(kv[1], "UTF-8") : "");
+        }
+        return params;
+    }
+
+    private static byte[] resource(String name) throws IOException {
+        try (InputStream in = TodoWebFixture.class.getClassLoader().getResourceAsStream(name)) {
+            final byte[] buffer = new byte[8192];
+            final java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+            int n;
+            while ((n = in.read(buffer)) > 0) out.write(buffer, 0, n);
+            return out.toByteArray();
+        }
+    }
+
+    private static void json(HttpExchange exchange, Object body) throws IOException {
+        respond(exchange, "application/json", mapper.writeValueAsBytes(body));
+    }
+
+    private static void respond(HttpExchange exchange, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.example;
+
+import com.example.flow.TodoCompleteFlow;
+import com.example.flow.TodoCreateFlow;
+import com.example.state.TodoState;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import net.corda.core.identity.Party;
+import net.corda.core.messaging.CordaRPCOps;
+import net.corda.core.node.services.ServiceInfo;
+import net.corda.core.transactions.SignedTransaction;
+import net.corda.node.services.config.VerifierType;
+import net.corda.node.services.transactions.ValidatingNotaryService;
+import net.corda.nodeapi.User;
+import net.corda.testing.driver.NodeHandle;
+import org.bouncycastle.asn1.x500.X500Name;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+import static net.corda.testing.driver.Driver.driver;
+
+/**
+ * Compares in-memory and out-of-process verification for todo transactions, so the verifier type can be chosen from
+ * data. Run it with the runVerifierBenchmark task, or directly:
+ *
+ *   VerifierBenchmark [todos per level] [concurrency levels, comma separated]
+ *
+ * For each verifier type a fresh network of a validating notary and two nodes is started by the driver, with
+ * [OutOfProcessVerifiers] started for every node in the out-of-process run. NodeA then creates todos assigned to NodeB
+ * and completes them, from as many concurrent RPC clients as the level allows; each todo is two transactions, both
+ * verified by NodeA, NodeB and the notary. Throughput and the latency of each flow are printed per type and level.
+ * A warm-up round runs first in each network and is not reported.
+ */
+public class VerifierBenchmark {
+    static private final int DEFAULT_TODOS = 200;
+    static private final int[] DEFAULT_LEVELS = { 1, 4, 16, 64 };
+    static private final User USER = new User("user1", "test", ImmutableSet.of(
+        "StartFlow." + TodoCreateFlow.Initiator.class.getName(),
+        "StartFlow." + TodoCompleteFlow.Initiator.class.getName()));
+
+    private static class Result {
+        final VerifierType type;
+        final int concurrency;
+        final int todos;
+        final double seconds;
+        final List<Long> createMicros;
+        final List<Long> completeMicros;
+        final int failures;
+
+        Result(VerifierType type, int concurrency, int todos, double seconds,
+               List<Long> createMicros, List<Long> completeMicros, int failures) {
+            this.type = type;
+            this.concurrency = concurrency;
+            this.todos = todos;
+            this.seconds = seconds;
+            this.createMicros = createMicros;
+            this.completeMicros = completeMicros;
+            this.failures = failures;
+        }
+    }
+
+    public static void main(String[] args) {
+        final int todos = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TODOS;
+        final int[] levels = args.length > 1
+            ? Arrays.stream(args[1].split(",")).mapToInt(level -> Integer.parseInt(level.trim())).toArray()
+            : DEFAULT_LEVELS;
+
+        final List<Result> results = new ArrayList<>();
+        for (VerifierType type : VerifierType.values()) {
+            results.addAll(run(type, todos, levels));
+        }
+
+        System.out.println();
+        System.out.println(String.format("%-13s %11s %8s %8s   %-23s   %-23s %8s",
+            "verifier", "concurrency", "todos", "tx/s", "create p50/p95/p99 ms", "complete p50/p95/p99 ms", "failures"));
+        for (Result result : results) {
+            System.out.println(String.format("%-13s %11d %8d %8.1f   %-23s   %-23s %8d",
+                result.type, result.concurrency, result.todos,
+                // Every todo that made it through is one create and one complete transaction.
+                2 * (result.todos - result.failures) / result.seconds,
+                percentiles(result.createMicros), percentiles(result.completeMicros), result.failures));
+        }
+    }
+
+    private static List<Result> run(VerifierType type, int todos, int[] levels) {
+        final OutOfProcessVerifiers verifiers = new OutOfProcessVerifiers();
+        try {
+            return driver(false, dsl -> {
+                try {
+                    final NodeHandle notary = dsl.startNode(new X500Name("CN=Controller,O=R3,OU=corda,L=London,C=UK"),
+                        ImmutableSet.of(new ServiceInfo(ValidatingNotaryService.Companion.getType(), null)),
+                        emptyList(), type, emptyMap(), null).get();
+                    final NodeHandle nodeA = dsl.startNode(new X500Name("CN=NodeA,O=NodeA,L=London,C=UK"),
+                        emptySet(), ImmutableList.of(USER), type, emptyMap(), null).get();
+                    final NodeHandle nodeB = dsl.startNode(new X500Name("CN=NodeB,O=NodeB,L=New York,C=US"),
+                        emptySet(), ImmutableList.of(USER), type, emptyMap(), null).get();
+
+                    if (type == VerifierType.OutOfProcess) {
+                        for (NodeHandle node : ImmutableList.of(notary, nodeA, nodeB)) {
+                            verifiers.start(node, OutOfProcessVerifiers.configuredCount());
+                        }
+                    }
+
+                    final CordaRPCOps proxy = nodeA.rpcClientToNode()
+                        .start(USER.getUsername(), USER.getPassword()).getProxy();
+                    final Party assignee = nodeB.getNodeInfo().getLegalIdentity();
+
+                    measure(type, proxy, assignee, Math.min(todos, 20), 4);
+                    final List<Result> results = new ArrayList<>();
+                    for (int concurrency : levels) {
+                        results.add(measure(type, proxy, assignee, todos, concurrency));
+                    }
+                    return results;
+                } catch (Exception ex) {
+                    throw new RuntimeException(ex);
+                }
+            });
+        } finally {
+            verifiers.stop();
+        }
+    }
+
+    private static Result measure(VerifierType type, CordaRPCOps proxy, Party assignee, int todos, int concurrency)
+        throws InterruptedException
+    {
+        final List<Long> createMicros = Collections.synchronizedList(new ArrayList<>());
+        final List<Long> completeMicros = Collections.synchronizedList(new ArrayList<>());
+        final AtomicInteger remaining = new AtomicInteger(todos);
+        final AtomicInteger failures = new AtomicInteger();
+
+        final ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        final long start = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            clients.execute(() -> {
+                while (remaining.getAndDecrement() > 0) {
+                    try {
+                        long began = System.nanoTime();
+                        final SignedTransaction created = proxy.startFlowDynamic(TodoCreateFlow.Initiator.class,
+                            "Benchmark", "Verifier benchmark todo", assignee).getReturnValue().get();
+                        createMicros.add((System.nanoTime() - began) / 1000);
+
+                        final TodoState todo = (TodoState) created.getTx().getOutputs().get(0).getData();
+                        began = System.nanoTime();
+                        proxy.startFlowDynamic(TodoCompleteFlow.Initiator.class, todo.getLinearId())
+                            .getReturnValue().get();
+                        completeMicros.add((System.nanoTime() - began) / 1000);
+                    } catch (Exception ex) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(1, TimeUnit.HOURS);
+        final double seconds = (System.nanoTime() - start) / 1e9;
+
+        return new Result(type, concurrency, todos, seconds, createMicros, completeMicros, failures.get());
+    }
+
+    private static String percentiles(List<Long> micros) {
+        if (micros.isEmpty()) return "-";
+        final List<Long> sorted = new ArrayList<>(micros);
+        Collections.sort(sorted);
+        return String.format("%.1f/%.1f/%.1f",
+            percentile(sorted, 50) / 1000.0, percentile(sorted, 95) / 1000.0, percentile(sorted, 99) / 1000.0);
+    }
+
+    private static long percentile(List<Long> sorted, int percent) {
+        final int index = (int) Math.ceil(percent / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index));
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.api;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CsvTests {
+    private static Csv.Reader reader(String text) {
+        return new Csv.Reader(new BufferedReader(new StringReader(text)));
+    }
+
+    @Test
+    public void readsSimpleRecordsAndSkipsBlankLines() throws Exception {
+        Csv.Reader reader = reader("title,assignee\n\nBuy milk,CN=NodeB\n");
+        assertEquals(Arrays.asList("title", "assignee"), reader.next());
+        assertEquals(Arrays.asList("Buy milk", "CN=NodeB"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void readsQuotedFieldsWithCommasQuotesAndLineBreaks() throws Exception {
+        Csv.Reader reader = reader("\"a, b\",\"say \"\"hi\"\"\",\"line one\nline two\",\n");
+        List<String> fields = reader.next();
+        assertEquals(Arrays.asList("a, b", "say \"hi\"", "line one\nline two", ""), fields);
+        assertEquals(2, reader.getLineNumber());
+    }
+
+    @Test
+    public void formatRoundTripsThroughReader() throws Exception {
+        String line = Csv.format("plain", "has,comma", "has \"quote\"", null);
+        assertEquals("plain,\"has,comma\",\"has \"\"quote\"\"\",", line);
+        assertEquals(Arrays.asList("plain", "has,comma", "has \"quote\"", ""), reader(line).next());
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.api;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class FlowAdmissionControllerTests {
+    @Test
+    public void rejectsOnceRunningAndQueueAreFull() throws Exception {
+        FlowAdmissionController admission = new FlowAdmissionController(1, 0, 10, 3);
+        FlowAdmissionController.Permit permit = admission.admit();
+        try {
+            admission.admit();
+            fail("Expected the second flow to be rejected");
+        } catch (AdmissionRejectedException ex) {
+            assertEquals(3, ex.getRetryAfterSeconds());
+        }
+        assertEquals(1L, admission.snapshot().get("rejectedQueueFull"));
+
+        permit.release();
+        admission.admit().release();
+        assertEquals(2L, admission.snapshot().get("admitted"));
+    }
+
+    @Test
+    public void queuedRequestTimesOut() throws Exception {
+        FlowAdmissionController admission = new FlowAdmissionController(1, 1, 10, 1);
+        admission.admit();
+        try {
+            admission.admit();
+            fail("Expected the queued flow to time out");
+        } catch (AdmissionRejectedException ex) {
+            assertEquals(1L, admission.snapshot().get("rejectedTimeout"));
+            assertEquals(0, admission.snapshot().get("queued"));
+        }
+    }
+
+    @Test
+    public void releasingTwiceFreesOnlyOneSlot() throws Exception {
+        FlowAdmissionController admission = new FlowAdmissionController(1, 0, 10, 1);
+        FlowAdmissionController.Permit permit = admission.admit();
+        permit.release();
+        permit.release();
+        assertEquals(0, admission.snapshot().get("running"));
+    }
+}
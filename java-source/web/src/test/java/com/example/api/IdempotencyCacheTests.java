@@ -0,0 +1,75 @@
+package com.example.api;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class IdempotencyCacheTests {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void retryAttachesToTheOriginalFlow() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache(10, 60_000, null);
+        assertNull(cache.claim("key", "create"));
+
+        IdempotencyCache.Entry retry = cache.claim("key", "create");
+        assertNotNull(retry);
+        assertFalse(retry.getTxId().isDone());
+
+        cache.complete("key", "ABC");
+        assertEquals("ABC", retry.getTxId().get());
+        assertEquals("ABC", cache.claim("key", "create").getTxId().get());
+    }
+
+    @Test
+    public void failedFlowReleasesTheKey() {
+        IdempotencyCache cache = new IdempotencyCache(10, 60_000, null);
+        assertNull(cache.claim("key", "create"));
+        cache.release("key", new RuntimeException("boom"));
+        assertNull(cache.claim("key", "create"));
+    }
+
+    @Test
+    public void inFlightEntriesAreNotEvicted() {
+        IdempotencyCache cache = new IdempotencyCache(1, 60_000, null);
+        cache.claim("a", "create");
+        cache.claim("b", "create");
+        assertEquals(2, cache.size());
+        cache.complete("a", "TX");
+        cache.claim("c", "create");
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void completedKeysSurviveARestartWhenJournalled() throws Exception {
+        Path journal = folder.getRoot().toPath().resolve("idempotency.journal");
+        IdempotencyCache cache = new IdempotencyCache(10, 60_000, journal);
+        cache.claim("key\twith tab", "create");
+        cache.complete("key\twith tab", "ABC");
+
+        IdempotencyCache reloaded = new IdempotencyCache(10, 60_000, journal);
+        assertEquals("ABC", reloaded.claim("key\twith tab", "create").getTxId().get());
+    }
+
+    @Test
+    public void journalIsCompactedWhileRunning() throws Exception {
+        Path journal = folder.getRoot().toPath().resolve("idempotency.journal");
+        IdempotencyCache cache = new IdempotencyCache(2, 60_000, journal);
+        for (int i = 0; i < 20; i++) {
+            cache.claim("key " + i, "create");
+            cache.complete("key " + i, "TX" + i);
+            assertTrue(Files.readAllLines(journal).size() <= IdempotencyCache.COMPACT_FACTOR * 2);
+        }
+
+        // Only the keys still held were kept, and the newest key survives a restart.
+        IdempotencyCache reloaded = new IdempotencyCache(2, 60_000, journal);
+        assertEquals("TX19", reloaded.claim("key 19", "create").getTxId().get());
+        assertNull(reloaded.claim("key 0", "create"));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.api;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class LatencyStatsTests {
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> stats(LatencyStats latencies, String query) {
+        return (Map<String, Object>) latencies.snapshot().get(query);
+    }
+
+    @Test
+    public void reportsPercentilesOfRecordedTimings() {
+        LatencyStats latencies = new LatencyStats(100);
+        for (long micros = 1; micros <= 100; micros++) {
+            latencies.record("q", micros, 7);
+        }
+        Map<String, Object> stats = stats(latencies, "q");
+        assertEquals(100L, stats.get("count"));
+        assertEquals(7L, stats.get("lastResults"));
+        assertEquals(50L, stats.get("p50Micros"));
+        assertEquals(95L, stats.get("p95Micros"));
+        assertEquals(99L, stats.get("p99Micros"));
+        assertEquals(100L, stats.get("maxMicros"));
+    }
+
+    @Test
+    public void percentilesOnlyCoverTheWindow() {
+        LatencyStats latencies = new LatencyStats(2);
+        latencies.record("q", 1000, 0);
+        latencies.record("q", 1, 0);
+        latencies.record("q", 2, 0);
+        Map<String, Object> stats = stats(latencies, "q");
+        assertEquals(3L, stats.get("count"));
+        assertEquals(2L, stats.get("maxMicros"));
+    }
+
+    @Test
+    public void timesEachQuerySeparately() {
+        LatencyStats latencies = new LatencyStats(10);
+        List<String> result = latencies.time("a", List::size, () -> Arrays.asList("x", "y"));
+        latencies.time("b", List::size, () -> Arrays.asList("x"));
+        assertEquals(2, result.size());
+        assertEquals(2L, stats(latencies, "a").get("lastResults"));
+        assertEquals(1L, stats(latencies, "b").get("lastResults"));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.api;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class QueryCoalescerTests {
+    @Test
+    public void concurrentIdenticalQueriesShareOneLoad() throws Exception {
+        QueryCoalescer queries = new QueryCoalescer(0);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> queries.get("q", () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return 42;
+                })));
+            }
+            // Wait until every caller is either running the load or waiting on it.
+            while ((long) queries.snapshot().get("executed") + (long) queries.snapshot().get("coalesced") < 8) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            for (Future<Integer> result : results) {
+                assertEquals(42, (int) result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(7L, queries.snapshot().get("coalesced"));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void finishedResultIsNotReusedWithoutTtl() {
+        QueryCoalescer queries = new QueryCoalescer(0);
+        AtomicInteger loads = new AtomicInteger();
+        queries.get("q", loads::incrementAndGet);
+        queries.get("q", loads::incrementAndGet);
+        assertEquals(2, loads.get());
+        assertEquals(0, queries.snapshot().get("queries"));
+    }
+
+    @Test
+    public void resultIsReusedWithinTtlUntilInvalidated() {
+        QueryCoalescer queries = new QueryCoalescer(60000);
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals(1, (int) queries.get("q", loads::incrementAndGet));
+        assertEquals(1, (int) queries.get("q", loads::incrementAndGet));
+        assertEquals(1L, queries.snapshot().get("reused"));
+
+        queries.invalidate();
+        assertEquals(2, (int) queries.get("q", loads::incrementAndGet));
+    }
+
+    @Test
+    public void failuresAreNotReused() {
+        QueryCoalescer queries = new QueryCoalescer(60000);
+        try {
+            queries.get("q", () -> { throw new IllegalStateException("node down"); });
+            fail("Expected the load to fail");
+        } catch (IllegalStateException ex) {
+            assertEquals("node down", ex.getMessage());
+        }
+        assertEquals("ok", queries.get("q", () -> "ok"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
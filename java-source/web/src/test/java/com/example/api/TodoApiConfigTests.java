@@ -0,0 +1,72 @@
+package com.example.api;
+
+import org.junit.Test;
+
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+
+public class TodoApiConfigTests {
+    private static Properties props(String name, String value) {
+        final Properties props = new Properties();
+        props.setProperty(name, value);
+        return props;
+    }
+
+    @Test
+    public void defaultsApplyWhenNothingIsSet() {
+        final TodoApiConfig config = new TodoApiConfig(new Properties());
+        assertEquals(16, config.importMaxInFlight);
+        assertEquals(100, config.importProgressInterval);
+        assertEquals(10, config.rpcHealthCheckSeconds);
+        assertEquals(32, config.flowMaxConcurrent);
+        assertEquals(5000, config.flowQueueTimeoutMillis);
+        assertEquals(1024, config.latencyWindow);
+        assertEquals(10000, config.idempotencyMaxKeys);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void anImportWindowOfZeroIsRejected() {
+        new TodoApiConfig(props("todo.import.maxInFlight", "0"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void aProgressIntervalOfZeroIsRejected() {
+        new TodoApiConfig(props("todo.import.progressInterval", " 0 "));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void aHealthCheckIntervalOfZeroIsRejected() {
+        new TodoApiConfig(props("todo.rpc.healthCheckSeconds", "0"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void aFlowLimitOfZeroIsRejected() {
+        new TodoApiConfig(props("todo.flow.maxConcurrent", "0"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void aNegativeFlowLimitIsRejected() {
+        new TodoApiConfig(props("todo.flow.maxConcurrent", "-4"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void aQueueTimeoutOfZeroIsRejected() {
+        new TodoApiConfig(props("todo.flow.queueTimeoutMillis", "0"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void aLatencyWindowOfZeroIsRejected() {
+        new TodoApiConfig(props("todo.metrics.latencyWindow", "0"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void anIdempotencyKeyLimitOfZeroIsRejected() {
+        new TodoApiConfig(props("todo.idempotency.maxKeys", "0"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void anIdempotencyTtlOfZeroIsRejected() {
+        new TodoApiConfig(props("todo.idempotency.ttlSeconds", "0"));
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.api;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TodoAssetsTests {
+    private static final String CSS = "site.0123456789abcdef.css";
+    private static final byte[] IDENTITY = "body{}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] GZIP = new byte[] { 0x1f, (byte) 0x8b };
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private TodoAssets assets;
+
+    @Before
+    public void setup() throws Exception {
+        File root = folder.newFolder("todoAssets");
+        Files.write(new File(root, "manifest.properties").toPath(), ("site.css=" + CSS + "\n").getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(root, CSS).toPath(), IDENTITY);
+        Files.write(new File(root, CSS + ".gz").toPath(), GZIP);
+        assets = new TodoAssets(new URLClassLoader(new URL[] { folder.getRoot().toURI().toURL() }, null));
+    }
+
+    @Test
+    public void servesThePrecompressedCopyWhenGzipIsAccepted() {
+        Response response = assets.getAsset(CSS, "gzip, deflate", null);
+        assertArrayEquals(GZIP, (byte[]) response.getEntity());
+        assertEquals("gzip", response.getHeaderString(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("public, max-age=31536000, immutable", response.getHeaderString(HttpHeaders.CACHE_CONTROL));
+        assertEquals("\"0123456789abcdef-gzip\"", response.getHeaderString(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void servesTheIdentityCopyOtherwise() {
+        Response response = assets.getAsset(CSS, "gzip;q=0, br", null);
+        assertArrayEquals(IDENTITY, (byte[]) response.getEntity());
+        assertNull(response.getHeaderString(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("css", response.getMediaType().getSubtype());
+        assertEquals("utf-8", response.getMediaType().getParameters().get("charset"));
+    }
+
+    @Test
+    public void onlyServesNamesFromTheManifest() {
+        assertEquals(404, assets.getAsset("site.css", null, null).getStatus());
+        assertEquals(404, assets.getAsset("manifest.properties", null, null).getStatus());
+        assertEquals(404, assets.getAsset("../todoWeb/index.html", null, null).getStatus());
+    }
+
+    @Test
+    public void answersNotModifiedForAMatchingEtag() {
+        assertEquals(304, assets.getAsset(CSS, null, "\"0123456789abcdef\"").getStatus());
+    }
+
+    @Test
+    public void parsesAcceptEncoding() {
+        assertTrue(TodoAssets.acceptsGzip("GZIP"));
+        assertTrue(TodoAssets.acceptsGzip("br, gzip;q=0.5"));
+        assertFalse(TodoAssets.acceptsGzip("gzip; q=0.0"));
+        assertFalse(TodoAssets.acceptsGzip("identity"));
+        assertFalse(TodoAssets.acceptsGzip(null));
+    }
+}
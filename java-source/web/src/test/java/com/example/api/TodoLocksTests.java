@@ -0,0 +1,48 @@
+package com.example.api;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class TodoLocksTests {
+    @Test
+    public void secondMutationOfTheSameTodoFailsFast() {
+        TodoLocks locks = new TodoLocks(0);
+        TodoLocks.Lock lock = locks.lock("a");
+        assertNotNull(lock);
+        assertNull(locks.lock("a"));
+        assertNotNull(locks.lock("b"));
+        assertEquals(1L, locks.snapshot().get("lockConflicts"));
+
+        lock.release();
+        assertNotNull(locks.lock("a"));
+    }
+
+    @Test
+    public void waitingMutationGetsTheLockOnceReleased() throws Exception {
+        TodoLocks locks = new TodoLocks(5000);
+        TodoLocks.Lock lock = locks.lock("a");
+        CompletableFuture<TodoLocks.Lock> waiter = CompletableFuture.supplyAsync(() -> locks.lock("a"));
+        while ((long) locks.snapshot().get("waited") == 0) {
+            Thread.sleep(5);
+        }
+        lock.release();
+        assertNotNull(waiter.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void releasedLocksAreForgotten() {
+        TodoLocks locks = new TodoLocks(0);
+        TodoLocks.Lock lock = locks.lock("a");
+        lock.release();
+        lock.release();
+        assertEquals(0, locks.snapshot().get("todosInUse"));
+        assertNotNull(locks.lock("a"));
+        assertNull(locks.lock("a"));
+    }
+}